@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EasingBenchmark {
+    private static final int SAMPLES = 1024;
+
+    @Param({
+        "LINEAR",
+        "SIN_IN_OUT", "SIN_IN", "SIN_OUT",
+        "QUAD_IN_OUT", "QUAD_IN", "QUAD_OUT",
+        "CUBIC_IN_OUT", "CUBIC_IN", "CUBIC_OUT",
+        "QUART_IN_OUT", "QUART_IN", "QUART_OUT",
+        "QUINT_IN_OUT", "QUINT_IN", "QUINT_OUT",
+        "CIRC_IN_OUT", "CIRC_IN", "CIRC_OUT",
+        "POLY_IN_OUT", "POLY_IN", "POLY_OUT",
+        "HYPER_IN_OUT", "HYPER_IN", "HYPER_OUT",
+        "CUBIC_BEZIER_1D", "CUBIC_BEZIER_2D"
+    })
+    public String easing;
+
+    @Param({"DIRECT", "LINEAR", "CUBIC"})
+    public String table;
+
+    private Animatable.Easing fn;
+    private final float[] t = new float[SAMPLES];
+    private final float[] out = new float[SAMPLES];
+
+    @Setup
+    public void setup() {
+        fn = switch (easing) {
+            case "LINEAR" -> Animatable.LINEAR;
+            case "SIN_IN_OUT" -> Animatable.SIN_IN_OUT;
+            case "SIN_IN" -> Animatable.SIN_IN;
+            case "SIN_OUT" -> Animatable.SIN_OUT;
+            case "QUAD_IN_OUT" -> Animatable.QUAD_IN_OUT;
+            case "QUAD_IN" -> Animatable.QUAD_IN;
+            case "QUAD_OUT" -> Animatable.QUAD_OUT;
+            case "CUBIC_IN_OUT" -> Animatable.CUBIC_IN_OUT;
+            case "CUBIC_IN" -> Animatable.CUBIC_IN;
+            case "CUBIC_OUT" -> Animatable.CUBIC_OUT;
+            case "QUART_IN_OUT" -> Animatable.QUART_IN_OUT;
+            case "QUART_IN" -> Animatable.QUART_IN;
+            case "QUART_OUT" -> Animatable.QUART_OUT;
+            case "QUINT_IN_OUT" -> Animatable.QUINT_IN_OUT;
+            case "QUINT_IN" -> Animatable.QUINT_IN;
+            case "QUINT_OUT" -> Animatable.QUINT_OUT;
+            case "CIRC_IN_OUT" -> Animatable.CIRC_IN_OUT;
+            case "CIRC_IN" -> Animatable.CIRC_IN;
+            case "CIRC_OUT" -> Animatable.CIRC_OUT;
+            case "POLY_IN_OUT" -> Animatable.polyInOut(2.5f);
+            case "POLY_IN" -> Animatable.polyIn(2.5f);
+            case "POLY_OUT" -> Animatable.polyOut(2.5f);
+            case "HYPER_IN_OUT" -> Animatable.hyperInOut(3);
+            case "HYPER_IN" -> Animatable.hyperIn(3);
+            case "HYPER_OUT" -> Animatable.hyperOut(3);
+            case "CUBIC_BEZIER_1D" -> Animatable.cubicBezier1D(0.25f, 0.9f);
+            case "CUBIC_BEZIER_2D" -> Animatable.cubicBezier2D(0.42f, 0, 0.58f, 1);
+            default -> throw new RuntimeException("Unknown easing: " + easing);
+        };
+
+        fn = switch (table) {
+            case "DIRECT" -> fn;
+            case "LINEAR" -> Animatable.bake(fn, 1e-4, false);
+            case "CUBIC" -> Animatable.bake(fn, 1e-4, true);
+            default -> throw new RuntimeException("Unknown table: " + table);
+        };
+
+        for (int i = 0; i < SAMPLES; i++)
+            t[i] = i / (SAMPLES - 1f);
+    }
+
+    @Benchmark
+    public float ease() {
+        float sum = 0;
+        for (int i = 0; i < SAMPLES; i++)
+            sum += fn.ease(t[i]);
+        return sum;
+    }
+
+    @Benchmark
+    public float[] easeBatch() {
+        fn.ease(t, out);
+        return out;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EditorBenchmark {
+    private static final String COMMAND = "draw segment (1.5, -2.25) (3, 4.75) color=#FF8800 width=2";
+
+    private CommandLine.Editor editor;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        editor = new CommandLine.Editor();
+        editor.set(COMMAND);
+    }
+
+    @Benchmark
+    public CharSequence typeChars() {
+        editor.reset();
+        for (int i = 0, l = COMMAND.length(); i < l; i++)
+            editor.type(COMMAND.charAt(i));
+        return editor.text;
+    }
+
+    @Benchmark
+    public CharSequence typeString() {
+        editor.reset();
+        editor.type(COMMAND);
+        return editor.text;
+    }
+
+    @Benchmark
+    public CharSequence backspaceAll() {
+        while (editor.text.length() > 0)
+            editor.backspace();
+        return editor.text;
+    }
+
+    @Benchmark
+    public CharSequence deleteAll() {
+        editor.start();
+        while (editor.text.length() > 0)
+            editor.delete();
+        return editor.text;
+    }
+
+    @Benchmark
+    public int walkCursor() {
+        editor.end();
+        while (editor.selFrom > 0)
+            editor.left();
+        while (editor.selTo < editor.text.length())
+            editor.right();
+        return editor.selFrom;
+    }
+
+    @Benchmark
+    public int selectWords() {
+        editor.start();
+        while (editor.selTo < editor.text.length())
+            editor.selRight();
+        return editor.selTo;
+    }
+
+    @Benchmark
+    public CharSequence undoRedo() {
+        for (int i = 0; i < 20; i++) {
+            editor.selAll();
+            editor.type("x" + i);
+            editor.saveUndo();
+        }
+        for (int i = 0; i < 20; i++)
+            editor.undo();
+        for (int i = 0; i < 20; i++)
+            editor.redo();
+        return editor.text;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineIntersectionBenchmark {
+    private static final int LINES = 1024;
+
+    private final LineIntersection isc = new LineIntersection();
+    private float[] lines;
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(42);
+        lines = new float[LINES * 8];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = rng.nextFloat() * 20 - 10;
+    }
+
+    @Benchmark
+    public int compute() {
+        int hits = 0;
+        for (int i = 0; i < lines.length; i += 8) {
+            isc.a1.set(lines[i], lines[i + 1]);
+            isc.a2.set(lines[i + 2], lines[i + 3]);
+            isc.b1.set(lines[i + 4], lines[i + 5]);
+            isc.b2.set(lines[i + 6], lines[i + 7]);
+            isc.compute();
+            if (!isc.parallel() && isc.onA() && isc.onB())
+                hits++;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessColorsBenchmark {
+    @Param({"32", "256", "2048"})
+    public int length;
+
+    private String text;
+    private final List<CommandLine.Highlight> highlights = new ArrayList<>();
+    private final List<CommandLine.Highlight> out = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        text = "x".repeat(length);
+
+        // Roughly what a command handler produces: a highlight per token, plus a few overlapping ones
+        Random rng = new Random(42);
+        for (int i = 0; i < length; i += 4)
+            highlights.add(new CommandLine.Highlight(i, Math.min(i + 3, length), 0xFF000000 | rng.nextInt(0xFFFFFF)));
+        for (int i = 0; i < length / 32 + 1; i++) {
+            int from = rng.nextInt(length);
+            highlights.add(new CommandLine.Highlight(from, Math.min(from + 16, length), 0xFFFF0000));
+        }
+    }
+
+    @Benchmark
+    public List<CommandLine.Highlight> processColors() {
+        CommandLine.processColors(text, highlights, out);
+        return out;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Measures the clipping that backs GeometryContext.raycastScreen and the line, ray and segment drawing methods,
+ * against a screen rectangle like the one NvgContext clips to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreenRaycastBenchmark {
+    private static final int LINES = 1024;
+    private static final float L = -9.6f, B = -5.4f, R = 9.6f, T = 5.4f;
+
+    private final ScreenRaycast out = new ScreenRaycast();
+    private float[] lines;
+
+    @Setup
+    public void setup() {
+        // About half of these lines miss the screen
+        Random rng = new Random(42);
+        lines = new float[LINES * 4];
+        for (int i = 0; i < lines.length; i++)
+            lines[i] = rng.nextFloat() * 40 - 20;
+    }
+
+    @Benchmark
+    public int clipLine() {
+        int hits = 0;
+        for (int i = 0; i < lines.length; i += 4) {
+            if (LineClipper.clipLine(lines[i], lines[i + 1], lines[i + 2], lines[i + 3], L, B, R, T, out))
+                hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int clipRay() {
+        int hits = 0;
+        for (int i = 0; i < lines.length; i += 4) {
+            if (LineClipper.clipRay(lines[i], lines[i + 1], lines[i + 2], lines[i + 3], L, B, R, T, out))
+                hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int clipSegment() {
+        int hits = 0;
+        for (int i = 0; i < lines.length; i += 4) {
+            if (LineClipper.clipSegment(lines[i], lines[i + 1], lines[i + 2], lines[i + 3], L, B, R, T, out))
+                hits++;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.joml.Vector2f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpaceBenchmark {
+    private static final int POINTS = 4096;
+
+    private final Space space = new Space();
+    private final Vector2f vec = new Vector2f();
+    private float[] in, out;
+
+    @Setup
+    public void setup() {
+        space.screenSize(1920, 1080);
+        space.pos(3.5f, -1.25f);
+        space.scale(2.5f);
+
+        Random rng = new Random(42);
+        in = new float[POINTS * 2];
+        out = new float[POINTS * 2];
+        for (int i = 0; i < in.length; i++)
+            in[i] = rng.nextFloat() * 20 - 10;
+    }
+
+    @Benchmark
+    public float[] posToScreenAxes() {
+        for (int i = 0; i < in.length; i += 2) {
+            out[i] = space.posXToScreen(in[i]);
+            out[i + 1] = space.posYToScreen(in[i + 1]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public void posToScreenVector(Blackhole bh) {
+        for (int i = 0; i < in.length; i += 2)
+            bh.consume(space.posToScreen(in[i], in[i + 1], vec).x);
+    }
+
+    @Benchmark
+    public float[] posToScreenBulk() {
+        space.posToScreen(in, 0, out, 0, POINTS);
+        return out;
+    }
+
+    @Benchmark
+    public float[] posToWorldBulk() {
+        space.posToWorld(in, 0, out, 0, POINTS);
+        return out;
+    }
+}
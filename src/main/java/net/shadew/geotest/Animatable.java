@@ -87,6 +87,26 @@ public interface Animatable {
         };
     }
 
+    /**
+     * Bakes an easing into a lookup table, with cubic interpolation and an error of at most 1e-4 where possible.
+     */
+    static BakedEasing bake(Easing easing) {
+        return bake(easing, 1e-4, true);
+    }
+
+    /**
+     * Bakes an easing into a lookup table with as few samples as needed to stay within the given error, up to 65536
+     * samples. Easings that have discontinuities may not get within the error, see {@link BakedEasing#maxError()}.
+     */
+    static BakedEasing bake(Easing easing, double maxError, boolean cubic) {
+        return BakedEasing.bake(easing, (float) maxError, cubic);
+    }
+
+    // Bakes an easing into a lookup table with the given number of intervals
+    static BakedEasing bakeResolution(Easing easing, int resolution, boolean cubic) {
+        return new BakedEasing(easing, resolution, cubic);
+    }
+
     private static float hyperbolic(float t, float d) {
         float c = d - 1;
 
@@ -133,6 +153,15 @@ public interface Animatable {
 
     interface Easing {
         float ease(float t);
+
+        default void ease(float[] in, float[] out) {
+            ease(in, 0, out, 0, in.length);
+        }
+
+        default void ease(float[] in, int inOff, float[] out, int outOff, int len) {
+            for (int i = 0; i < len; i++)
+                out[outOff + i] = ease(in[inOff + i]);
+        }
     }
 
     private static float lerp(float a, float b, float t) {
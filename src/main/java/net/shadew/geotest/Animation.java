@@ -28,10 +28,16 @@ public class Animation {
 
     private final Animatable animatable;
     private final Animatable.Easing easing;
+    private final FrameClock clock;
 
     public Animation(Animatable animatable, Animatable.Easing easing) {
+        this(animatable, easing, FrameClock.GLOBAL);
+    }
+
+    public Animation(Animatable animatable, Animatable.Easing easing, FrameClock clock) {
         this.animatable = animatable;
         this.easing = easing;
+        this.clock = clock;
     }
 
     public void reset() {
@@ -44,14 +50,16 @@ public class Animation {
 
     public void start(int duration) {
         this.duration = duration;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.millis();
         this.mode = STARTED;
+        clock.active(startTime + duration);
     }
 
     public void start(int duration, int delay) {
         this.duration = duration;
-        this.startTime = System.currentTimeMillis() + delay;
+        this.startTime = clock.millis() + delay;
         this.mode = STARTED;
+        clock.active(startTime + duration);
     }
 
     public void apply() {
@@ -62,7 +70,7 @@ public class Animation {
             animatable.set(1);
         }
         if (mode == STARTED) {
-            long time = System.currentTimeMillis();
+            long time = clock.millis();
             if (time < startTime) {
                 animatable.set(0);
             } else if (time > startTime + duration) {
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many animations at once. Animations are stored as parallel arrays of primitives, the clock is sampled once per
+ * frame, and all animations are advanced in one loop, split over the fork-join pool when there are many of them.
+ * Finished animations are removed at the end of the frame they finish in.
+ * <p>
+ * An animation either writes a value interpolated between two numbers into an element of a float array, which is the
+ * fast path meant for animating many entities at once, or sets an {@link Animatable}. Animatables are always set on the
+ * thread that calls {@link #update()}. Starting an animation on an array element that is still being animated makes
+ * both animations write to it, until one of them finishes.
+ * <p>
+ * The runtime updates the scheduler of a context every frame, before the scene is drawn.
+ */
+public final class AnimationScheduler {
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final int CHUNK = 2048;
+
+    private final FrameClock clock;
+
+
+    private int count;
+    private long[] start = new long[64];
+    private int[] duration = new int[64];
+    private Animatable.Easing[] easing = new Animatable.Easing[64];
+    private float[] from = new float[64];
+    private float[] to = new float[64];
+    private float[][] target = new float[64][];
+    private int[] index = new int[64];
+    private Animatable[] animatable = new Animatable[64];
+    private float[] value = new float[64];
+
+    private int animatables;
+    private long nextEnd = Long.MAX_VALUE;
+
+    public AnimationScheduler() {
+        this(FrameClock.GLOBAL);
+    }
+
+    public AnimationScheduler(FrameClock clock) {
+        this.clock = clock;
+    }
+
+    public int active() {
+        return count;
+    }
+
+    public void start(float[] target, int index, float from, float to, int duration, Animatable.Easing easing) {
+        start(target, index, from, to, duration, 0, easing);
+    }
+
+    public void start(float[] target, int index, float from, float to, int duration, int delay, Animatable.Easing easing) {
+        add(target, index, null, from, to, duration, delay, easing);
+    }
+
+    public void start(Animatable animatable, int duration, Animatable.Easing easing) {
+        start(animatable, duration, 0, easing);
+    }
+
+    public void start(Animatable animatable, int duration, int delay, Animatable.Easing easing) {
+        add(null, 0, animatable, 0, 1, duration, delay, easing);
+        animatables++;
+    }
+
+    public void clear() {
+        Arrays.fill(easing, 0, count, null);
+        Arrays.fill(target, 0, count, null);
+        Arrays.fill(animatable, 0, count, null);
+        count = 0;
+        animatables = 0;
+        nextEnd = Long.MAX_VALUE;
+    }
+
+    private void add(float[] tgt, int idx, Animatable anim, float a, float b, int dur, int delay, Animatable.Easing e) {
+        if (count == start.length)
+            grow();
+
+        int i = count++;
+        long t = clock.millis() + delay;
+        start[i] = t;
+        duration[i] = Math.max(dur, 0);
+        easing[i] = e;
+        from[i] = a;
+        to[i] = b;
+        target[i] = tgt;
+        index[i] = idx;
+        animatable[i] = anim;
+        nextEnd = Math.min(nextEnd, t + duration[i]);
+    }
+
+    private void grow() {
+        int n = start.length * 2;
+        start = Arrays.copyOf(start, n);
+        duration = Arrays.copyOf(duration, n);
+        easing = Arrays.copyOf(easing, n);
+        from = Arrays.copyOf(from, n);
+        to = Arrays.copyOf(to, n);
+        target = Arrays.copyOf(target, n);
+        index = Arrays.copyOf(index, n);
+        animatable = Arrays.copyOf(animatable, n);
+        value = Arrays.copyOf(value, n);
+    }
+
+    public void update() {
+        update(clock.millis());
+    }
+
+    void update(long now) {
+        if (count == 0)
+            return;
+
+        if (count >= PARALLEL_THRESHOLD)
+            ForkJoinPool.commonPool().invoke(new Advance(0, count, now));
+        else
+            advance(0, count, now);
+
+        if (animatables > 0) {
+            for (int i = 0; i < count; i++) {
+                if (animatable[i] != null)
+                    animatable[i].set(value[i]);
+            }
+        }
+
+        if (now >= nextEnd)
+            compact(now);
+    }
+
+    private void advance(int lo, int hi, long now) {
+        for (int i = lo; i < hi; i++) {
+            long t = now - start[i];
+            float e;
+            if (t < 0)
+                e = 0;
+            else if (t >= duration[i])
+                e = 1;
+            else
+                e = easing[i].ease(t / (float) duration[i]);
+
+            float v = from[i] + (to[i] - from[i]) * e;
+            value[i] = v;
+            if (target[i] != null)
+                target[i][index[i]] = v;
+        }
+    }
+
+    // Removes finished animations, keeping the others in the order they were started
+    private void compact(long now) {
+        int n = 0;
+        long end = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long e = start[i] + duration[i];
+            if (now >= e) {
+                if (animatable[i] != null)
+                    animatables--;
+                continue;
+            }
+
+            end = Math.min(end, e);
+            if (n != i) {
+                start[n] = start[i];
+                duration[n] = duration[i];
+                easing[n] = easing[i];
+                from[n] = from[i];
+                to[n] = to[i];
+                target[n] = target[i];
+                index[n] = index[i];
+                animatable[n] = animatable[i];
+                value[n] = value[i];
+            }
+            n++;
+        }
+
+        Arrays.fill(easing, n, count, null);
+        Arrays.fill(target, n, count, null);
+        Arrays.fill(animatable, n, count, null);
+        count = n;
+        nextEnd = end;
+    }
+
+    private final class Advance extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+        private final long now;
+
+        Advance(int lo, int hi, long now) {
+            this.lo = lo;
+            this.hi = hi;
+            this.now = now;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Advance(lo, mid, now), new Advance(mid, hi, now));
+                return;
+            }
+            advance(lo, hi, now);
+        }
+    }
+}
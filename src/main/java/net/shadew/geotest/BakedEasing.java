@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/**
+ * An easing sampled at evenly spaced points in [0, 1], interpolated linearly or with a Catmull-Rom spline. Inputs
+ * outside [0, 1] are passed to the source easing, so overshooting animations behave like they would without a table.
+ * Create one with {@link Animatable#bake}.
+ */
+public final class BakedEasing implements Animatable.Easing {
+    private static final int MIN_RESOLUTION = 64;
+    private static final int MAX_RESOLUTION = 65536;
+    private static final int CHECKS = 8;
+
+    private final Animatable.Easing source;
+    // Padded with one extrapolated sample at each end, so that the cubic interpolation needs no bounds checks
+    private final float[] table;
+    private final int resolution;
+    private final boolean cubic;
+    private final float maxError;
+
+    BakedEasing(Animatable.Easing source, int resolution, boolean cubic) {
+        if (resolution < 1)
+            throw new RuntimeException("Resolution must be at least 1");
+
+        if (source instanceof BakedEasing baked)
+            source = baked.source;
+
+        this.source = source;
+        this.resolution = resolution;
+        this.cubic = cubic;
+
+        float[] table = new float[resolution + 3];
+        for (int i = 0; i <= resolution; i++)
+            table[i + 1] = source.ease((float) i / resolution);
+        // Extrapolate quadratically, so that the spline keeps its accuracy in the outer intervals
+        int n = resolution + 1;
+        if (resolution >= 2) {
+            table[0] = 3 * table[1] - 3 * table[2] + table[3];
+            table[n + 1] = 3 * table[n] - 3 * table[n - 1] + table[n - 2];
+        } else {
+            table[0] = 2 * table[1] - table[2];
+            table[n + 1] = 2 * table[n] - table[n - 1];
+        }
+        this.table = table;
+
+        this.maxError = measure();
+    }
+
+    static BakedEasing bake(Animatable.Easing source, float maxError, boolean cubic) {
+        BakedEasing baked = new BakedEasing(source, MIN_RESOLUTION, cubic);
+        while (baked.maxError > maxError && baked.resolution < MAX_RESOLUTION)
+            baked = new BakedEasing(source, baked.resolution * 2, cubic);
+        return baked;
+    }
+
+    public Animatable.Easing source() {
+        return source;
+    }
+
+    public int resolution() {
+        return resolution;
+    }
+
+    public boolean cubic() {
+        return cubic;
+    }
+
+    /**
+     * The largest difference from the source easing found while baking, sampled at several points in every interval of
+     * the table.
+     */
+    public float maxError() {
+        return maxError;
+    }
+
+    @Override
+    public float ease(float t) {
+        if (!(t >= 0 && t <= 1))
+            return source.ease(t);
+        return sample(t);
+    }
+
+    @Override
+    public void ease(float[] in, int inOff, float[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            float t = in[inOff + i];
+            out[outOff + i] = t >= 0 && t <= 1 ? sample(t) : source.ease(t);
+        }
+    }
+
+    private float sample(float t) {
+        float x = t * resolution;
+        int i = Math.min((int) x, resolution - 1);
+        float f = x - i;
+
+        float[] tab = table;
+        float p1 = tab[i + 1];
+        float p2 = tab[i + 2];
+        if (!cubic)
+            return p1 + (p2 - p1) * f;
+
+        float p0 = tab[i];
+        float p3 = tab[i + 3];
+        float a = -0.5f * p0 + 1.5f * p1 - 1.5f * p2 + 0.5f * p3;
+        float b = p0 - 2.5f * p1 + 2 * p2 - 0.5f * p3;
+        float c = 0.5f * (p2 - p0);
+        return ((a * f + b) * f + c) * f + p1;
+    }
+
+    private float measure() {
+        float max = 0;
+        int n = resolution * CHECKS;
+        for (int i = 0; i <= n; i++) {
+            float t = (float) i / n;
+            float err = Math.abs(sample(t) - source.ease(t));
+            if (!(err <= max))
+                max = Float.isNaN(err) ? Float.POSITIVE_INFINITY : err;
+        }
+        return max;
+    }
+}
@@ -0,0 +1,1753 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.joml.*;
+
+import java.lang.Math;
+import java.nio.FloatBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Everything of a GeometryContext that does not depend on how paths are rendered: the coordinate transforms, culling,
+ * clipping, marker and line geometry, and event dispatch. Subclasses receive screen space paths that are already
+ * culled, and implement text layout, which depends on the renderer's fonts.
+ */
+abstract class BaseContext implements GeometryContext {
+    private static final float SQRT_2 = 1.41421356237f;
+    private static final float SQRT_3 = 1.73205080757f;
+    private static final float HALF_SQRT_2 = 0.70710678118f;
+    private static final float HALF_SQRT_3 = 0.86602540378f;
+    private static final float PI = 3.14159265359f;
+
+    // Extra pixel around everything that is culled, for the antialiasing fringe
+    private static final float AA_MARGIN = 1;
+
+    private static final int MARKER_CIRCLE = 0;
+    private static final int MARKER_SQUARE = 1;
+    private static final int MARKER_DIAMOND = 2;
+    private static final int MARKER_HEXAGON = 3;
+    private static final int MARKER_PLUS = 4;
+    private static final int MARKER_X = 5;
+    private static final int MARKER_STAR = 6;
+
+    private static final int SEG_HIDDEN = 0;
+    private static final int SEG_CLIPPED = 1;
+    private static final int SEG_OPEN = 2;
+
+    final Space space;
+    final RenderStats stats = new RenderStats();
+    private final FrameClock clock;
+    private final AnimationScheduler animations;
+    private final FrameStats frameStats;
+
+    private final Vector2f vec = new Vector2f();
+    private final ScreenRaycast rc = new ScreenRaycast();
+    final TextBox tbox = new TextBox();
+
+    AlignX alignX = AlignX.LEFT;
+    AlignY alignY = AlignY.TOP;
+    String font = Font.REGULAR;
+
+    private float screenL, screenT, screenR, screenB;
+    private float mouseX, mouseY;
+    private float mouseWX, mouseWY;
+
+    private int bg = 0x00000000;
+
+    private long timeStart;
+
+    private RenderMode renderMode = RenderMode.CONTINUOUS;
+    private boolean redraw = true;
+
+    // Line style, reset to the defaults at the start of every frame
+    private LineJoin lineJoin;
+    private LineEnd lineEnd;
+    private float miterLimit;
+
+    // Screen space bounds of the current path, to skip filling or stroking paths that are entirely off screen
+    private float pathL, pathT, pathR, pathB;
+
+    BaseContext(Space space, FrameStats frameStats) {
+        this(space, frameStats, FrameClock.GLOBAL);
+    }
+
+    BaseContext(Space space, FrameStats frameStats, FrameClock clock) {
+        this.space = space;
+        this.frameStats = frameStats;
+        this.clock = clock;
+        this.animations = new AnimationScheduler(clock);
+        this.timeStart = clock.millis();
+        resetLineStyle();
+    }
+
+    int bg() {
+        return bg;
+    }
+
+    void beginFrame() {
+        stats.reset();
+        resetLineStyle();
+        boundAll();
+    }
+
+    private void resetLineStyle() {
+        lineJoin = LineJoin.MITER;
+        lineEnd = LineEnd.FLAT;
+        miterLimit = 10;
+    }
+
+    abstract void pathBegin();
+    abstract void pathClose();
+    abstract void pathMoveTo(float x, float y);
+    abstract void pathLineTo(float x, float y);
+    abstract void pathQuadTo(float cx, float cy, float x, float y);
+    abstract void pathCubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y);
+    abstract void pathArcTo(float x, float y, float x2, float y2, float r);
+    abstract void pathCircle(float cx, float cy, float r);
+    abstract void pathEllipse(float cx, float cy, float rx, float ry);
+    abstract void pathRect(float x, float y, float w, float h);
+    abstract void pathRoundRect(float x, float y, float w, float h, float cr);
+    abstract void pathArc(float cx, float cy, float r, float from, float to);
+    abstract void pathFill(float r, float g, float b, float a);
+    abstract void pathStroke(float wdt, float r, float g, float b, float a);
+
+    abstract void applyLineJoin(LineJoin join);
+    abstract void applyLineEnd(LineEnd end);
+    abstract void applyMiterLimit(float lim);
+
+    void beginPath() {
+        pathL = pathT = Float.POSITIVE_INFINITY;
+        pathR = pathB = Float.NEGATIVE_INFINITY;
+        pathBegin();
+        stats.paths++;
+    }
+
+    private void bound(float x, float y) {
+        pathL = Math.min(pathL, x);
+        pathT = Math.min(pathT, y);
+        pathR = Math.max(pathR, x);
+        pathB = Math.max(pathB, y);
+    }
+
+    private void bound(float cx, float cy, float rx, float ry) {
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+        pathL = Math.min(pathL, cx - rx);
+        pathT = Math.min(pathT, cy - ry);
+        pathR = Math.max(pathR, cx + rx);
+        pathB = Math.max(pathB, cy + ry);
+    }
+
+    private void boundAll() {
+        pathL = pathT = Float.NEGATIVE_INFINITY;
+        pathR = pathB = Float.POSITIVE_INFINITY;
+    }
+
+    private float strokeMargin(float wdt) {
+        // Miter joins reach out up to the miter limit, square caps up to sqrt(2) half widths
+        float hw = wdt / 2;
+        if (lineJoin == LineJoin.MITER)
+            return hw * Math.max(miterLimit, SQRT_2);
+        return hw * SQRT_2;
+    }
+
+    private boolean submitPath(float margin) {
+        return submit(pathL, pathT, pathR, pathB, margin);
+    }
+
+    boolean submit(float l, float t, float r, float b, float margin) {
+        margin += AA_MARGIN;
+        if (l > space.screenW() + margin || r < -margin || t > space.screenH() + margin || b < -margin) {
+            stats.culled++;
+            return false;
+        }
+        stats.submitted++;
+        return true;
+    }
+
+    void update(float mx, float my) {
+        space.worldTopLeft(vec);
+        float sl = vec.x;
+        float st = vec.y;
+
+        space.worldBottomRight(vec);
+        float sr = vec.x;
+        float sb = vec.y;
+
+        screenL = Math.min(sl, sr);
+        screenR = Math.max(sl, sr);
+        screenB = Math.min(sb, st);
+        screenT = Math.max(sb, st);
+
+        space.posToWorld(mx, my, vec);
+        mouseX = vec.x;
+        mouseY = vec.y;
+
+        mouseWX = mx;
+        mouseWY = my;
+    }
+
+    @Override
+    public void bg(int argb) {
+        bg = argb;
+    }
+
+    @Override
+    public void bg(float r, float g, float b) {
+        bg(r, g, b, 1);
+    }
+
+    @Override
+    public void bg(float r, float g, float b, float a) {
+        int ir = (int) (r * 255);
+        int ig = (int) (g * 255);
+        int ib = (int) (b * 255);
+        int ia = (int) (a * 255);
+        bg(ia << 24 | ir << 16 | ig << 8 | ib);
+    }
+
+    @Override
+    public void resetTime() {
+        timeStart = clock.millis();
+    }
+
+    @Override
+    public long millis() {
+        return clock.millis() - timeStart;
+    }
+
+    @Override
+    public FrameClock clock() {
+        return clock;
+    }
+
+    @Override
+    public float seconds() {
+        return millis() / 1000f;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, float ox, float oy, int col, float size) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        drawHudText(text, x, y, col, size);
+    }
+
+    @Override
+    public void drawTextBg(String text, float x, float y, float ox, float oy, int col, float size, float margin, float cr) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        drawHudTextBg(text, x, y, col, size, margin, cr);
+    }
+
+    @Override
+    public void drawTextBox(String text, float x, float y, float ox, float oy, int col, float wrapWdt, float size) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        drawHudTextBox(text, x, y, col, wrapWdt, size);
+    }
+
+    @Override
+    public void drawTextBoxBg(String text, float x, float y, float ox, float oy, int col, float wrapWdt, float size, float margin, float cr) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        drawHudTextBoxBg(text, x, y, col, wrapWdt, size, margin, cr);
+    }
+
+    @Override
+    public void locateText(String text, float x, float y, float ox, float oy, float size, TextBox out) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        locateHudText(text, x, y, size, out);
+    }
+
+    @Override
+    public void locateTextBox(String text, float x, float y, float ox, float oy, float wrapWdt, float size, TextBox out) {
+        x = posXToScreen(x) + ox;
+        y = posYToScreen(y) + oy;
+        locateHudTextBox(text, x, y, wrapWdt, size, out);
+    }
+
+    @Override
+    public void drawHudTextBg(String text, float x, float y, int col, float size, float margin, float cr) {
+        locateHudText(text, x, y, size, tbox);
+        drawTextBg(tbox, col, margin, cr);
+    }
+
+    @Override
+    public void drawHudTextBoxBg(String text, float x, float y, int col, float wrapWdt, float size, float margin, float cr) {
+        locateHudTextBox(text, x, y, wrapWdt, size, tbox);
+        drawTextBg(tbox, col, margin, cr);
+    }
+
+    @Override
+    public AnimationScheduler animations() {
+        return animations;
+    }
+
+    @Override
+    public FrameStats frameStats() {
+        return frameStats;
+    }
+
+    @Override
+    public void requestRedraw() {
+        redraw = true;
+    }
+
+    @Override
+    public void renderMode(RenderMode mode) {
+        if (mode != renderMode)
+            redraw = true;
+        renderMode = mode;
+    }
+
+    @Override
+    public RenderMode renderMode() {
+        return renderMode;
+    }
+
+    boolean takeRedraw() {
+        boolean r = redraw;
+        redraw = false;
+        return r;
+    }
+
+    @Override
+    public RenderStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void drawTextBg(TextBox box, int col, float margin, float cr) {
+        beginPath();
+        roundRectHud(box.lo.x - margin, box.lo.y - margin, box.hi.x - box.lo.x + 2 * margin, box.hi.y - box.lo.y + 2 * margin, cr);
+        fill(col);
+    }
+
+    @Override
+    public void textAlign(AlignX alignX, AlignY alignY) {
+        this.alignX = alignX;
+        this.alignY = alignY;
+    }
+
+    @Override
+    public AlignX alignX() {
+        return alignX;
+    }
+
+    @Override
+    public AlignY alignY() {
+        return alignY;
+    }
+
+    @Override
+    public void font(String font) {
+        this.font = font;
+    }
+
+    @Override
+    public String font() {
+        return font;
+    }
+
+    @Override
+    public void drawPointCircle(float x, float y, int col, float s) {
+        beginPath();
+        markerPath(MARKER_CIRCLE, posXToScreen(x), posYToScreen(y), s);
+        fill(col);
+    }
+
+    @Override
+    public void drawPointCircle(Vector2fc pt, int col, float s) {
+        drawPointCircle(pt.x(), pt.y(), col, s);
+    }
+
+    @Override
+    public void drawPointSquare(float x, float y, int col, float s) {
+        beginPath();
+        markerPath(MARKER_SQUARE, posXToScreen(x), posYToScreen(y), s);
+        fill(col);
+    }
+
+    @Override
+    public void drawPointSquare(Vector2fc pt, int col, float s) {
+        drawPointSquare(pt.x(), pt.y(), col, s);
+    }
+
+    @Override
+    public void drawPointDiamond(float x, float y, int col, float s) {
+        beginPath();
+        markerPath(MARKER_DIAMOND, posXToScreen(x), posYToScreen(y), s);
+        fill(col);
+    }
+
+    @Override
+    public void drawPointDiamond(Vector2fc pt, int col, float s) {
+        drawPointDiamond(pt.x(), pt.y(), col, s);
+    }
+
+    @Override
+    public void drawPointHexagon(float x, float y, int col, float s) {
+        beginPath();
+        markerPath(MARKER_HEXAGON, posXToScreen(x), posYToScreen(y), s);
+        fill(col);
+    }
+
+    @Override
+    public void drawPointHexagon(Vector2fc pt, int col, float s) {
+        drawPointHexagon(pt.x(), pt.y(), col, s);
+    }
+
+    @Override
+    public void drawPointCircleOut(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_CIRCLE, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointCircleOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointCircleOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointSquareOut(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_SQUARE, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointSquareOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointSquareOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointDiamondOut(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_DIAMOND, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointDiamondOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointDiamondOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointHexagonOut(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_HEXAGON, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointHexagonOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointHexagonOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointPlus(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_PLUS, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointPlus(Vector2fc pt, int col, float s, float wdt) {
+        drawPointPlus(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointX(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_X, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointX(Vector2fc pt, int col, float s, float wdt) {
+        drawPointX(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointStar(float x, float y, int col, float s, float wdt) {
+        beginPath();
+        markerPath(MARKER_STAR, posXToScreen(x), posYToScreen(y), s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointStar(Vector2fc pt, int col, float s, float wdt) {
+        drawPointStar(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    @Override
+    public void drawPointCircle(float[] xy, int count, int col, float s) {
+        if (markersPath(MARKER_CIRCLE, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointCircle(FloatBuffer xy, int count, int col, float s) {
+        if (markersPath(MARKER_CIRCLE, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointSquare(float[] xy, int count, int col, float s) {
+        if (markersPath(MARKER_SQUARE, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointSquare(FloatBuffer xy, int count, int col, float s) {
+        if (markersPath(MARKER_SQUARE, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointDiamond(float[] xy, int count, int col, float s) {
+        if (markersPath(MARKER_DIAMOND, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointDiamond(FloatBuffer xy, int count, int col, float s) {
+        if (markersPath(MARKER_DIAMOND, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointHexagon(float[] xy, int count, int col, float s) {
+        if (markersPath(MARKER_HEXAGON, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointHexagon(FloatBuffer xy, int count, int col, float s) {
+        if (markersPath(MARKER_HEXAGON, xy, count, s, 0))
+            fill(col);
+    }
+
+    @Override
+    public void drawPointCircleOut(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_CIRCLE, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointCircleOut(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_CIRCLE, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointSquareOut(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_SQUARE, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointSquareOut(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_SQUARE, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointDiamondOut(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_DIAMOND, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointDiamondOut(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_DIAMOND, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointHexagonOut(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_HEXAGON, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointHexagonOut(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_HEXAGON, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointPlus(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_PLUS, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointPlus(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_PLUS, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointX(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_X, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointX(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_X, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointStar(float[] xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_STAR, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPointStar(FloatBuffer xy, int count, int col, float s, float wdt) {
+        if (markersPath(MARKER_STAR, xy, count, s, wdt))
+            stroke(wdt, col);
+    }
+
+    private boolean markersPath(int marker, float[] xy, int count, float s, float wdt) {
+        float w = space.screenW(), h = space.screenH();
+        float m = s / 2 + wdt + AA_MARGIN;
+
+        beginPath();
+        boolean any = false;
+        for (int i = 0, l = count * 2; i < l; i += 2) {
+            float x = posXToScreen(xy[i]);
+            float y = posYToScreen(xy[i + 1]);
+            if (x < -m || x > w + m || y < -m || y > h + m) {
+                stats.culled++;
+                continue;
+            }
+
+            markerPath(marker, x, y, s);
+            any = true;
+        }
+        return any;
+    }
+
+    private boolean markersPath(int marker, FloatBuffer xy, int count, float s, float wdt) {
+        float w = space.screenW(), h = space.screenH();
+        float m = s / 2 + wdt + AA_MARGIN;
+
+        beginPath();
+        boolean any = false;
+        for (int i = xy.position(), l = i + count * 2; i < l; i += 2) {
+            float x = posXToScreen(xy.get(i));
+            float y = posYToScreen(xy.get(i + 1));
+            if (x < -m || x > w + m || y < -m || y > h + m) {
+                stats.culled++;
+                continue;
+            }
+
+            markerPath(marker, x, y, s);
+            any = true;
+        }
+        return any;
+    }
+
+    private void markerPath(int marker, float x, float y, float s) {
+        float r = s / 2;
+        switch (marker) {
+            case MARKER_CIRCLE -> circleHud(x, y, r);
+            case MARKER_SQUARE -> {
+                float hs = s * HALF_SQRT_2 / 2;
+                rectHud(x - hs, y - hs, hs * 2, hs * 2);
+            }
+            case MARKER_DIAMOND -> {
+                moveToHud(x, y + r);
+                lineToHud(x - r, y);
+                lineToHud(x, y - r);
+                lineToHud(x + r, y);
+                pathClose();
+            }
+            case MARKER_HEXAGON -> {
+                float hs3r = r * HALF_SQRT_3;
+                float hr = r * 0.5f;
+
+                moveToHud(x + r, y);
+                lineToHud(x + hr, y - hs3r);
+                lineToHud(x - hr, y - hs3r);
+                lineToHud(x - r, y);
+                lineToHud(x - hr, y + hs3r);
+                lineToHud(x + hr, y + hs3r);
+                pathClose();
+            }
+            case MARKER_PLUS -> {
+                moveToHud(x - r, y);
+                lineToHud(x + r, y);
+                moveToHud(x, y - r);
+                lineToHud(x, y + r);
+            }
+            case MARKER_X -> {
+                float hs2r = r * HALF_SQRT_2;
+
+                moveToHud(x - hs2r, y - hs2r);
+                lineToHud(x + hs2r, y + hs2r);
+                moveToHud(x + hs2r, y - hs2r);
+                lineToHud(x - hs2r, y + hs2r);
+            }
+            case MARKER_STAR -> {
+                float hs3r = r * HALF_SQRT_3;
+                float hr = r * 0.5f;
+
+                moveToHud(x, y + r);
+                lineToHud(x, y - r);
+                moveToHud(x - hs3r, y + hr);
+                lineToHud(x + hs3r, y - hr);
+                moveToHud(x + hs3r, y + hr);
+                lineToHud(x - hs3r, y - hr);
+            }
+        }
+    }
+
+    @Override
+    public void drawSegment(float x1, float y1, float x2, float y2, int col, float wdt) {
+        drawLine(x1, y1, x2, y2, true, true, col, wdt);
+    }
+
+    @Override
+    public void drawSegment(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawSegment(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    @Override
+    public void drawRay(float x1, float y1, float x2, float y2, int col, float wdt) {
+        drawLine(x1, y1, x2, y2, true, false, col, wdt);
+    }
+
+    @Override
+    public void drawRay(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawRay(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2, int col, float wdt) {
+        drawLine(x1, y1, x2, y2, false, false, col, wdt);
+    }
+
+    @Override
+    public void drawLine(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawLine(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    @Override
+    public void drawSegments(float[] xy, int count, int col, float wdt) {
+        float margin = lenToWorld(wdt);
+        boolean any = false;
+
+        beginPath();
+        for (int i = 0, l = count * 4; i < l; i += 4) {
+            if (segmentPath(xy[i], xy[i + 1], xy[i + 2], xy[i + 3], margin, false) != SEG_HIDDEN)
+                any = true;
+            else
+                stats.culled++;
+        }
+
+        if (any)
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawSegments(FloatBuffer xy, int count, int col, float wdt) {
+        float margin = lenToWorld(wdt);
+        boolean any = false;
+
+        beginPath();
+        for (int i = xy.position(), l = i + count * 4; i < l; i += 4) {
+            if (segmentPath(xy.get(i), xy.get(i + 1), xy.get(i + 2), xy.get(i + 3), margin, false) != SEG_HIDDEN)
+                any = true;
+            else
+                stats.culled++;
+        }
+
+        if (any)
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPolyline(float[] xy, int count, int col, float wdt) {
+        float margin = lenToWorld(wdt);
+        boolean any = false;
+        int seg = SEG_HIDDEN;
+
+        beginPath();
+        for (int i = 2, l = count * 2; i < l; i += 2) {
+            seg = segmentPath(xy[i - 2], xy[i - 1], xy[i], xy[i + 1], margin, seg == SEG_OPEN);
+            if (seg != SEG_HIDDEN)
+                any = true;
+            else
+                stats.culled++;
+        }
+
+        if (any)
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawPolyline(FloatBuffer xy, int count, int col, float wdt) {
+        float margin = lenToWorld(wdt);
+        boolean any = false;
+        int seg = SEG_HIDDEN;
+
+        beginPath();
+        for (int i = xy.position() + 2, l = xy.position() + count * 2; i < l; i += 2) {
+            seg = segmentPath(xy.get(i - 2), xy.get(i - 1), xy.get(i), xy.get(i + 1), margin, seg == SEG_OPEN);
+            if (seg != SEG_HIDDEN)
+                any = true;
+            else
+                stats.culled++;
+        }
+
+        if (any)
+            stroke(wdt, col);
+    }
+
+    @Override
+    public void drawSegmentsHud(float[] xy, int count, int col, float wdt) {
+        beginPath();
+        for (int i = 0, l = count * 4; i < l; i += 4) {
+            moveToHud(xy[i], xy[i + 1]);
+            lineToHud(xy[i + 2], xy[i + 3]);
+        }
+        stroke(wdt, col);
+    }
+
+    @Override
+    public boolean drawGridLayer(Grid grid) {
+        // Only renderers with a GPU grid shader can draw a grid layer at once
+        return false;
+    }
+
+    /*
+     * Clips a segment to the screen and appends the visible part to the current path. When connect is true and the
+     * segment is not clipped at its start, it continues the previous sub-path so that line joins are kept. Returns
+     * SEG_OPEN when the end of the segment is visible, so that a next segment can connect to it.
+     */
+    private int segmentPath(float x1, float y1, float x2, float y2, float margin, boolean connect) {
+        if (!LineClipper.clipSegment(x1, y1, x2, y2, screenL - margin, screenB - margin, screenR + margin, screenT + margin, rc))
+            return SEG_HIDDEN;
+
+        float u1 = rc.u1;
+        float u2 = rc.u2;
+
+        if (!connect || u1 > 0)
+            moveToHud(posXToScreen(x1 + u1 * (x2 - x1)), posYToScreen(y1 + u1 * (y2 - y1)));
+        lineToHud(posXToScreen(x1 + u2 * (x2 - x1)), posYToScreen(y1 + u2 * (y2 - y1)));
+
+        return u2 == 1 ? SEG_OPEN : SEG_CLIPPED;
+    }
+
+    @Override
+    public void drawNormal(float x, float y, float nx, float ny, float l, int col, float wdt) {
+        nx = vecXToScreen(nx);
+        ny = vecYToScreen(ny);
+
+        float nm = (float) Math.sqrt(nx * nx + ny * ny);
+        nx /= nm;
+        ny /= nm;
+        if (nm == 0) {
+            nx = 1;
+            ny = 0;
+        }
+
+        x = posXToScreen(x);
+        y = posYToScreen(y);
+
+        beginPath();
+        moveToHud(x, y);
+        lineToHud(x + l * nx, y + l * ny);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawNormal(Vector2fc src, Vector2fc norm, float l, int col, float wdt) {
+        drawNormal(src.x(), src.y(), norm.x(), norm.y(), l, col, wdt);
+    }
+
+    @Override
+    public void drawArrowEnd(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        nx = vecXToScreen(nx);
+        ny = vecYToScreen(ny);
+
+        float nm = (float) Math.sqrt(nx * nx + ny * ny);
+        nx /= nm;
+        ny /= nm;
+        if (nm == 0) {
+            nx = 1;
+            ny = 0;
+        }
+
+        float tx = ny;
+        float ty = -nx;
+
+        x = posXToScreen(x);
+        y = posYToScreen(y);
+
+        beginPath();
+        moveToHud(x - nx * s - tx * s * HALF_SQRT_2, y - ny * s - ty * s * HALF_SQRT_2);
+        lineToHud(x, y);
+        lineToHud(x - nx * s + tx * s * HALF_SQRT_2, y - ny * s + ty * s * HALF_SQRT_2);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawArrowEnd(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawArrowEnd(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    @Override
+    public void drawLineDash(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        nx = vecXToScreen(nx);
+        ny = vecYToScreen(ny);
+
+        float nm = (float) Math.sqrt(nx * nx + ny * ny);
+        nx /= nm;
+        ny /= nm;
+        if (nm == 0) {
+            nx = 1;
+            ny = 0;
+        }
+
+        float tx = ny;
+        float ty = -nx;
+
+        x = posXToScreen(x);
+        y = posYToScreen(y);
+
+        beginPath();
+        moveToHud(x - tx * s, y - ty * s);
+        lineToHud(x + tx * s, y + ty * s);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void drawLineDash(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawLineDash(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    @Override
+    public void drawLineCross(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        nx = vecXToScreen(nx);
+        ny = vecYToScreen(ny);
+
+        float nm = (float) Math.sqrt(nx * nx + ny * ny);
+        nx /= nm;
+        ny /= nm;
+        if (nm == 0) {
+            nx = 1;
+            ny = 0;
+        }
+
+        float tx = ny;
+        float ty = -nx;
+
+        x = posXToScreen(x);
+        y = posYToScreen(y);
+
+        beginPath();
+        moveToHud(x - tx * s - nx * s * 0.5f, y - ty * s - ny * s * 0.5f);
+        lineToHud(x + tx * s + nx * s * 0.5f, y + ty * s + ny * s * 0.5f);
+        moveToHud(x - tx * s + nx * s * 0.5f, y - ty * s + ny * s * 0.5f);
+        lineToHud(x + tx * s - nx * s * 0.5f, y + ty * s - ny * s * 0.5f);
+        stroke(wdt, col);
+
+    }
+
+    @Override
+    public void drawLineCross(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawLineCross(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    @Override
+    public void drawList(DisplayList list) {
+        list.replay(this);
+    }
+
+    private void drawLine(float x1, float y1, float x2, float y2, boolean loEnd, boolean hiEnd, int col, float wdt) {
+        float m = lenToWorld(wdt);
+        float l = screenL - m, b = screenB - m, r = screenR + m, t = screenT + m;
+
+        // Segments take the fast path when they lie on screen entirely, which most of them do
+        boolean visible;
+        if (loEnd && hiEnd) {
+            visible = LineClipper.clipSegment(x1, y1, x2, y2, l, b, r, t, rc);
+        } else {
+            float lo = loEnd ? 0 : Float.NEGATIVE_INFINITY;
+            float hi = hiEnd ? 1 : Float.POSITIVE_INFINITY;
+            visible = LineClipper.clip(x1, y1, x2, y2, l, b, r, t, lo, hi, rc);
+        }
+        if (!visible) {
+            stats.culled++;
+            return;
+        }
+
+        ScreenRaycast rc = this.rc;
+
+        float lx1 = posXToScreen(x1 + rc.u1 * (x2 - x1));
+        float lx2 = posXToScreen(x1 + rc.u2 * (x2 - x1));
+        float ly1 = posYToScreen(y1 + rc.u1 * (y2 - y1));
+        float ly2 = posYToScreen(y1 + rc.u2 * (y2 - y1));
+
+        beginPath();
+        moveToHud(lx1, ly1);
+        lineToHud(lx2, ly2);
+        stroke(wdt, col);
+    }
+
+    @Override
+    public void begin() {
+        beginPath();
+    }
+
+    @Override
+    public void close() {
+        pathClose();
+    }
+
+    @Override
+    public void moveTo(float x, float y) {
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        moveToHud(x, y);
+    }
+
+    @Override
+    public void moveTo(Vector2fc p) {
+        moveTo(p.x(), p.y());
+    }
+
+    @Override
+    public void lineTo(float x, float y) {
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        lineToHud(x, y);
+    }
+
+    @Override
+    public void lineTo(Vector2fc p) {
+        lineTo(p.x(), p.y());
+    }
+
+    @Override
+    public void quadTo(float cx, float cy, float x, float y) {
+        vec.set(cx, cy);
+        posToScreen(vec, vec);
+        cx = vec.x;
+        cy = vec.y;
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        quadToHud(cx, cy, x, y);
+    }
+
+    @Override
+    public void quadTo(Vector2fc c, Vector2fc p) {
+        quadTo(c.x(), c.y(), p.x(), p.y());
+    }
+
+    @Override
+    public void cubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        vec.set(c1x, c1y);
+        posToScreen(vec, vec);
+        c1x = vec.x;
+        c1y = vec.y;
+        vec.set(c2x, c2y);
+        posToScreen(vec, vec);
+        c2x = vec.x;
+        c2y = vec.y;
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        cubicToHud(c1x, c1y, c2x, c2y, x, y);
+    }
+
+    @Override
+    public void cubicTo(Vector2fc c1, Vector2fc c2, Vector2fc p) {
+        cubicTo(c1.x(), c1.y(), c2.x(), c2.y(), p.x(), p.y());
+    }
+
+    @Override
+    public void arcTo(float x, float y, float x2, float y2, float r) {
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        vec.set(x2, y2);
+        posToScreen(vec, vec);
+        x2 = vec.x;
+        y2 = vec.y;
+        r = lenToScreen(r);
+        arcToHud(x, y, x2, y2, r);
+    }
+
+    @Override
+    public void arcTo(Vector2fc p, Vector2fc p2, float r) {
+        arcTo(p.x(), p.y(), p2.x(), p2.y(), r);
+    }
+
+    @Override
+    public void moveToHud(float x, float y) {
+        bound(x, y);
+        pathMoveTo(x, y);
+        stats.vertices += 1;
+    }
+
+    @Override
+    public void moveToHud(Vector2fc p) {
+        moveToHud(p.x(), p.y());
+    }
+
+    @Override
+    public void lineToHud(float x, float y) {
+        bound(x, y);
+        pathLineTo(x, y);
+        stats.vertices += 1;
+    }
+
+    @Override
+    public void lineToHud(Vector2fc p) {
+        lineToHud(p.x(), p.y());
+    }
+
+    @Override
+    public void quadToHud(float cx, float cy, float x, float y) {
+        bound(cx, cy);
+        bound(x, y);
+        pathQuadTo(cx, cy, x, y);
+        stats.vertices += 2;
+    }
+
+    @Override
+    public void quadToHud(Vector2fc c, Vector2fc p) {
+        quadToHud(c.x(), c.y(), p.x(), p.y());
+    }
+
+    @Override
+    public void cubicToHud(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        bound(c1x, c1y);
+        bound(c2x, c2y);
+        bound(x, y);
+        pathCubicTo(c1x, c1y, c2x, c2y, x, y);
+        stats.vertices += 3;
+    }
+
+    @Override
+    public void cubicToHud(Vector2fc c1, Vector2fc c2, Vector2fc p) {
+        cubicToHud(c1.x(), c1.y(), c2.x(), c2.y(), p.x(), p.y());
+    }
+
+    @Override
+    public void arcToHud(float x, float y, float x2, float y2, float r) {
+        // The tangent points of the arc can lie beyond both control points, don't try to bound this
+        boundAll();
+        pathArcTo(x, y, x2, y2, r);
+        stats.vertices += 4;
+    }
+
+    @Override
+    public void arcToHud(Vector2fc p, Vector2fc p2, float r) {
+        arcToHud(p.x(), p.y(), p2.x(), p2.y(), r);
+    }
+
+    @Override
+    public void circle(float cx, float cy, float r) {
+        vec.set(cx, cy);
+        posToScreen(vec, vec);
+        cx = vec.x;
+        cy = vec.y;
+        r = lenToScreen(r);
+        circleHud(cx, cy, r);
+    }
+
+    @Override
+    public void circle(Vector2fc c, float r) {
+        circle(c.x(), c.y(), r);
+    }
+
+    @Override
+    public void circleHud(float cx, float cy, float r) {
+        bound(cx, cy, r, r);
+        pathCircle(cx, cy, r);
+        stats.vertices += 13;
+    }
+
+    @Override
+    public void circleHud(Vector2fc c, float r) {
+        circleHud(c.x(), c.y(), r);
+    }
+
+    @Override
+    public void ellipse(float cx, float cy, float rx, float ry) {
+        vec.set(cx, cy);
+        posToScreen(vec, vec);
+        cx = vec.x;
+        cy = vec.y;
+        rx = lenToScreen(rx);
+        ry = lenToScreen(ry);
+        ellipseHud(cx, cy, rx, ry);
+    }
+
+    @Override
+    public void ellipse(Vector2fc c, float rx, float ry) {
+        ellipse(c.x(), c.y(), rx, ry);
+    }
+
+    @Override
+    public void ellipse(Vector2fc c, Vector2fc r) {
+        ellipse(c, r.x(), r.y());
+    }
+
+    @Override
+    public void ellipseHud(float cx, float cy, float rx, float ry) {
+        bound(cx, cy, rx, ry);
+        pathEllipse(cx, cy, rx, ry);
+        stats.vertices += 13;
+    }
+
+    @Override
+    public void ellipseHud(Vector2fc c, float rx, float ry) {
+        ellipseHud(c.x(), c.y(), rx, ry);
+    }
+
+    @Override
+    public void ellipseHud(Vector2fc c, Vector2fc r) {
+        ellipseHud(c, r.x(), r.y());
+    }
+
+    @Override
+    public void rect(float x, float y, float w, float h) {
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        w = lenToScreen(w);
+        h = lenToScreen(h);
+        rectHud(x, y - h, w, h);
+    }
+
+    @Override
+    public void rect(Vector2fc p, float w, float h) {
+        rect(p.x(), p.y(), w, h);
+    }
+
+    @Override
+    public void rect(Vector2fc p, Vector2fc s) {
+        rect(p, s.x(), s.y());
+    }
+
+    @Override
+    public void rectHud(float x, float y, float w, float h) {
+        bound(x, y);
+        bound(x + w, y + h);
+        pathRect(x, y, w, h);
+        stats.vertices += 4;
+    }
+
+    @Override
+    public void rectHud(Vector2fc p, float w, float h) {
+        rectHud(p.x(), p.y(), w, h);
+    }
+
+    @Override
+    public void rectHud(Vector2fc p, Vector2fc s) {
+        rectHud(p, s.x(), s.y());
+    }
+
+    @Override
+    public void roundRect(float x, float y, float w, float h, float cr) {
+        vec.set(x, y);
+        posToScreen(vec, vec);
+        x = vec.x;
+        y = vec.y;
+        w = lenToScreen(w);
+        h = lenToScreen(h);
+        cr = lenToScreen(cr);
+        roundRectHud(x, y - h, w, h, cr);
+    }
+
+    @Override
+    public void roundRect(Vector2fc p, float w, float h, float cr) {
+        roundRect(p.x(), p.y(), w, h, cr);
+    }
+
+    @Override
+    public void roundRect(Vector2fc p, Vector2fc s, float cr) {
+        roundRect(p, s.x(), s.y(), cr);
+    }
+
+    @Override
+    public void roundRectHud(float x, float y, float w, float h, float cr) {
+        bound(x, y);
+        bound(x + w, y + h);
+        pathRoundRect(x, y, w, h, cr);
+        stats.vertices += 17;
+    }
+
+    @Override
+    public void roundRectHud(Vector2fc p, float w, float h, float cr) {
+        roundRectHud(p.x(), p.y(), w, h, cr);
+    }
+
+    @Override
+    public void roundRectHud(Vector2fc p, Vector2fc s, float cr) {
+        roundRectHud(p, s.x(), s.y(), cr);
+    }
+
+    @Override
+    public void arc(float cx, float cy, float r, float from, float to) {
+        vec.set(cx, cy);
+        posToScreen(vec, vec);
+        cx = vec.x;
+        cy = vec.y;
+        r = lenToScreen(r);
+        arcHud(cx, cy, r, from, to);
+    }
+
+    @Override
+    public void arc(Vector2fc c, float r, float from, float to) {
+        arc(c.x(), c.y(), r, from, to);
+    }
+
+    @Override
+    public void arcHud(float cx, float cy, float r, float from, float to) {
+        bound(cx, cy, r, r);
+        pathArc(cx, cy, r, from, to);
+        stats.vertices += arcVertices(from, to);
+    }
+
+    private static int arcVertices(float from, float to) {
+        // Same subdivision as nvgArc: up to 5 cubic segments, one per quarter turn
+        float da = Math.min(Math.abs(to - from), 2 * (float) Math.PI);
+        int divs = Math.max(1, Math.min((int) (da / ((float) Math.PI / 2) + 0.5f), 5));
+        return 1 + divs * 3;
+    }
+
+    @Override
+    public void arcHud(Vector2fc c, float r, float from, float to) {
+        arcHud(c.x(), c.y(), r, from, to);
+    }
+
+    @Override
+    public void fill(int argb) {
+        fill(
+            (argb >>> 16 & 0xFF) / 255f,
+            (argb >>> 8 & 0xFF) / 255f,
+            (argb & 0xFF) / 255f,
+            (argb >>> 24 & 0xFF) / 255f
+        );
+    }
+
+    @Override
+    public void fill(float r, float g, float b) {
+        fill(r, g, b, 1);
+    }
+
+    @Override
+    public void fill(float r, float g, float b, float a) {
+        if (!submitPath(0))
+            return;
+
+        pathFill(r, g, b, a);
+        stats.fills++;
+    }
+
+    @Override
+    public void fill(Vector3fc rgb) {
+        fill(rgb.x(), rgb.y(), rgb.z(), 1);
+    }
+
+    @Override
+    public void fill(Vector4fc rgba) {
+        fill(rgba.x(), rgba.y(), rgba.z(), rgba.w());
+    }
+
+    @Override
+    public void stroke(float wdt, int argb) {
+        stroke(
+            wdt,
+            (argb >>> 16 & 0xFF) / 255f,
+            (argb >>> 8 & 0xFF) / 255f,
+            (argb & 0xFF) / 255f,
+            (argb >>> 24 & 0xFF) / 255f
+        );
+    }
+
+    @Override
+    public void stroke(float wdt, float r, float g, float b) {
+        stroke(wdt, r, g, b, 1);
+    }
+
+    @Override
+    public void stroke(float wdt, float r, float g, float b, float a) {
+        if (!submitPath(strokeMargin(wdt)))
+            return;
+
+        pathStroke(wdt, r, g, b, a);
+        stats.strokes++;
+    }
+
+    @Override
+    public void stroke(float wdt, Vector3fc rgb) {
+        stroke(wdt, rgb.x(), rgb.y(), rgb.z(), 1);
+    }
+
+    @Override
+    public void stroke(float wdt, Vector4fc rgba) {
+        stroke(wdt, rgba.x(), rgba.y(), rgba.z(), rgba.w());
+    }
+
+    @Override
+    public void lineJoin(LineJoin join) {
+        if (join != lineJoin) {
+            lineJoin = join;
+            applyLineJoin(join);
+        }
+    }
+
+    @Override
+    public void lineEnd(LineEnd end) {
+        if (end != lineEnd) {
+            lineEnd = end;
+            applyLineEnd(end);
+        }
+    }
+
+    @Override
+    public void miterLimit(float lim) {
+        if (lim != miterLimit) {
+            miterLimit = lim;
+            applyMiterLimit(lim);
+        }
+    }
+
+    @Override
+    public boolean onScreen(float x, float y) {
+        return x >= screenL && x <= screenR && y >= screenB && y <= screenT;
+    }
+
+    @Override
+    public boolean onScreen(Vector2fc vec) {
+        return onScreen(vec.x(), vec.y());
+    }
+
+    @Override
+    public boolean onScreen(float x, float y, float margin) {
+        return x >= screenL - margin && x <= screenR + margin && y >= screenB - margin && y <= screenT + margin;
+    }
+
+    @Override
+    public boolean onScreen(Vector2fc vec, float margin) {
+        return onScreen(vec.x(), vec.y(), margin);
+    }
+
+    @Override
+    public boolean raycastScreen(float in1x, float in1y, float in2x, float in2y, float margin, ScreenRaycast out) {
+        return LineClipper.clipLine(in1x, in1y, in2x, in2y, screenL - margin, screenB - margin, screenR + margin, screenT + margin, out);
+    }
+
+    @Override
+    public boolean raycastScreen(Vector2fc in1, Vector2fc in2, float margin, ScreenRaycast out) {
+        return raycastScreen(in1.x(), in1.y(), in2.x(), in2.y(), margin, out);
+    }
+
+    @Override
+    public float windowW() {
+        return space.screenW();
+    }
+
+    @Override
+    public float windowH() {
+        return space.screenH();
+    }
+
+    @Override
+    public float screenL() {
+        return screenL;
+    }
+
+    @Override
+    public float screenT() {
+        return screenT;
+    }
+
+    @Override
+    public float screenR() {
+        return screenR;
+    }
+
+    @Override
+    public float screenB() {
+        return screenB;
+    }
+
+    @Override
+    public float mouseWindowX() {
+        return mouseWX;
+    }
+
+    @Override
+    public float mouseWindowY() {
+        return mouseWY;
+    }
+
+    @Override
+    public float mouseX() {
+        return mouseX;
+    }
+
+    @Override
+    public float mouseY() {
+        return mouseY;
+    }
+
+    @Override
+    public float scale() {
+        return space.scale();
+    }
+
+    @Override
+    public float translateX() {
+        return -space.x();
+    }
+
+    @Override
+    public float translateY() {
+        return -space.y();
+    }
+
+    @Override
+    public float unitLength() {
+        return space.unitLength();
+    }
+
+    @Override
+    public float lenToScreen(float len) {
+        return space.lenToScreen(len);
+    }
+
+    @Override
+    public float lenToWorld(float len) {
+        return space.lenToWorld(len);
+    }
+
+    @Override
+    public Vector2f vecToScreen(float x, float y, Vector2f out) {
+        return space.vecToScreen(x, y, out);
+    }
+
+    @Override
+    public Vector2f vecToScreen(Vector2fc vec, Vector2f out) {
+        return space.vecToScreen(vec, out);
+    }
+
+    @Override
+    public Vector2f vecToWorld(float x, float y, Vector2f out) {
+        return space.vecToWorld(x, y, out);
+    }
+
+    @Override
+    public Vector2f vecToWorld(Vector2fc vec, Vector2f out) {
+        return space.vecToWorld(vec, out);
+    }
+
+    @Override
+    public float vecXToScreen(float x) {
+        return space.vecXToScreen(x);
+    }
+
+    @Override
+    public float vecYToScreen(float y) {
+        return space.vecYToScreen(y);
+    }
+
+    @Override
+    public float vecXToWorld(float x) {
+        return space.vecXToWorld(x);
+    }
+
+    @Override
+    public float vecYToWorld(float y) {
+        return space.vecYToWorld(y);
+    }
+
+    @Override
+    public Vector2f posToScreen(float x, float y, Vector2f out) {
+        return space.posToScreen(x, y, out);
+    }
+
+    @Override
+    public Vector2f posToScreen(Vector2fc vec, Vector2f out) {
+        return space.posToScreen(vec, out);
+    }
+
+    @Override
+    public Vector2f posToWorld(float x, float y, Vector2f out) {
+        return space.posToWorld(x, y, out);
+    }
+
+    @Override
+    public Vector2f posToWorld(Vector2fc vec, Vector2f out) {
+        return space.posToWorld(vec, out);
+    }
+
+    @Override
+    public void posToScreen(float[] in, int inOff, float[] out, int outOff, int count) {
+        space.posToScreen(in, inOff, out, outOff, count);
+    }
+
+    @Override
+    public void posToScreen(FloatBuffer in, FloatBuffer out, int count) {
+        space.posToScreen(in, out, count);
+    }
+
+    @Override
+    public void posToWorld(float[] in, int inOff, float[] out, int outOff, int count) {
+        space.posToWorld(in, inOff, out, outOff, count);
+    }
+
+    @Override
+    public void posToWorld(FloatBuffer in, FloatBuffer out, int count) {
+        space.posToWorld(in, out, count);
+    }
+
+    @Override
+    public float posXToScreen(float x) {
+        return space.posXToScreen(x);
+    }
+
+    @Override
+    public float posYToScreen(float y) {
+        return space.posYToScreen(y);
+    }
+
+    @Override
+    public float posXToWorld(float x) {
+        return space.posXToWorld(x);
+    }
+
+    @Override
+    public float posYToWorld(float y) {
+        return space.posYToWorld(y);
+    }
+
+    private final Set<KeyDown> keyDown = new HashSet<>();
+
+    void keyDown(int key, int mods, boolean repeat) {
+        keyDown.forEach(l -> l.keyDown(this, key, mods, repeat));
+    }
+
+    @Override
+    public void onKeyDown(KeyDown l) {
+        keyDown.add(l);
+    }
+
+    @Override
+    public void removeKeyDown(KeyDown l) {
+        keyDown.remove(l);
+    }
+
+    private final Set<KeyUp> keyUp = new HashSet<>();
+
+    void keyUp(int key, int mods) {
+        keyUp.forEach(l -> l.keyUp(this, key, mods));
+    }
+
+    @Override
+    public void onKeyUp(KeyUp l) {
+        keyUp.add(l);
+    }
+
+    @Override
+    public void removeKeyUp(KeyUp l) {
+        keyUp.remove(l);
+    }
+
+    private final Set<MouseDown> mouseDown = new HashSet<>();
+
+    void mouseDown(int btn, int mods) {
+        mouseDown.forEach(l -> l.mouseDown(this, btn, mods));
+    }
+
+    @Override
+    public void onMouseDown(MouseDown l) {
+        mouseDown.add(l);
+    }
+
+    @Override
+    public void removeMouseDown(MouseDown l) {
+        mouseDown.remove(l);
+    }
+
+    private final Set<MouseUp> mouseUp = new HashSet<>();
+
+    void mouseUp(int btn, int mods) {
+        mouseUp.forEach(l -> l.mouseUp(this, btn, mods));
+    }
+
+    @Override
+    public void onMouseUp(MouseUp l) {
+        mouseUp.add(l);
+    }
+
+    @Override
+    public void removeMouseUp(MouseUp l) {
+        mouseUp.remove(l);
+    }
+
+    private final Set<MouseMove> mouseMove = new HashSet<>();
+
+    void mouseMove() {
+        mouseMove.forEach(l -> l.mouseMove(this));
+    }
+
+    @Override
+    public void onMouseMove(MouseMove l) {
+        mouseMove.add(l);
+    }
+
+    @Override
+    public void removeMouseMove(MouseMove l) {
+        mouseMove.remove(l);
+    }
+
+    static void argb(int argb, Vector4f out) {
+        out.x = (argb >>> 16 & 0xFF) / 255f;
+        out.y = (argb >>> 8 & 0xFF) / 255f;
+        out.z = (argb & 0xFF) / 255f;
+        out.w = (argb >>> 24 & 0xFF) / 255f;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+/*
+ * Transforms of interleaved xy coordinate arrays of the form ((p + t) * s) * u + c (world to screen) and
+ * ((p - c) / u) / s - t (screen to world), with t, s and c given separately for x and y. These are the same operations,
+ * in the same order, as the scalar transforms in Space, so bulk results match them exactly. Uses the Vector API when the
+ * jdk.incubator.vector module is present.
+ */
+final class BulkTransform {
+    private static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BulkTransform() {
+    }
+
+    static void toScreen(float[] in, int inOff, float[] out, int outOff, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        int i = SIMD ? SimdTransform.toScreen(in, inOff, out, outOff, count, tx, ty, sx, sy, u, cx, cy) : 0;
+        for (int l = count * 2; i < l; i += 2) {
+            out[outOff + i] = (in[inOff + i] + tx) * sx * u + cx;
+            out[outOff + i + 1] = (in[inOff + i + 1] + ty) * sy * u + cy;
+        }
+    }
+
+    static void toWorld(float[] in, int inOff, float[] out, int outOff, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        int i = SIMD ? SimdTransform.toWorld(in, inOff, out, outOff, count, tx, ty, sx, sy, u, cx, cy) : 0;
+        for (int l = count * 2; i < l; i += 2) {
+            out[outOff + i] = (in[inOff + i] - cx) / u / sx - tx;
+            out[outOff + i + 1] = (in[inOff + i + 1] - cy) / u / sy - ty;
+        }
+    }
+
+    static void toScreen(FloatBuffer in, FloatBuffer out, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        Objects.checkFromIndexSize(0, count * 2, in.remaining());
+        Objects.checkFromIndexSize(0, count * 2, out.remaining());
+
+        if (in.hasArray() && out.hasArray()) {
+            toScreen(
+                in.array(), in.arrayOffset() + in.position(),
+                out.array(), out.arrayOffset() + out.position(),
+                count, tx, ty, sx, sy, u, cx, cy
+            );
+            return;
+        }
+
+        int ip = in.position(), op = out.position();
+        int i = SIMD ? SimdTransform.toScreen(in, out, count, tx, ty, sx, sy, u, cx, cy) : 0;
+        for (int l = count * 2; i < l; i += 2) {
+            out.put(op + i, (in.get(ip + i) + tx) * sx * u + cx);
+            out.put(op + i + 1, (in.get(ip + i + 1) + ty) * sy * u + cy);
+        }
+    }
+
+    static void toWorld(FloatBuffer in, FloatBuffer out, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        Objects.checkFromIndexSize(0, count * 2, in.remaining());
+        Objects.checkFromIndexSize(0, count * 2, out.remaining());
+
+        if (in.hasArray() && out.hasArray()) {
+            toWorld(
+                in.array(), in.arrayOffset() + in.position(),
+                out.array(), out.arrayOffset() + out.position(),
+                count, tx, ty, sx, sy, u, cx, cy
+            );
+            return;
+        }
+
+        int ip = in.position(), op = out.position();
+        int i = SIMD ? SimdTransform.toWorld(in, out, count, tx, ty, sx, sy, u, cx, cy) : 0;
+        for (int l = count * 2; i < l; i += 2) {
+            out.put(op + i, (in.get(ip + i) - cx) / u / sx - tx);
+            out.put(op + i + 1, (in.get(ip + i + 1) - cy) / u / sy - ty);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package net.shadew.geotest;
 import org.lwjgl.glfw.GLFW;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -70,6 +71,7 @@ class CommandLine implements CommandHandler.Processor {
     private boolean focused;
 
     private String text;
+    private String posText;
     private float[] charPos = new float[16];
     private int grabbedChar = 0;
     private boolean mouseDown;
@@ -92,7 +94,8 @@ class CommandLine implements CommandHandler.Processor {
 
     private float scrollX;
 
-    private long blinkTimeOrig = System.currentTimeMillis();
+    private long blinkTimeOrig = FrameClock.now();
+    private boolean cursorShown;
 
     private CommandHandler handler;
 
@@ -116,9 +119,10 @@ class CommandLine implements CommandHandler.Processor {
 
         editor.reset();
         focused = true;
-        blinkTimeOrig = System.currentTimeMillis();
+        blinkTimeOrig = FrameClock.now();
 
         text = null;
+        posText = null;
         suggsFocused = false;
         selectedSugg = 0;
         processInput();
@@ -128,6 +132,15 @@ class CommandLine implements CommandHandler.Processor {
         return focused;
     }
 
+    private boolean cursorShown() {
+        return (FrameClock.now() - blinkTimeOrig) % 1000 <= 500;
+    }
+
+    // The cursor blinks, so a focused command line needs a new frame every time it toggles
+    public boolean needsRedraw() {
+        return focused && cursorShown() != cursorShown;
+    }
+
     public void charInput(int cp) {
         if (focused) {
             if (cp < 0x20)
@@ -176,7 +189,7 @@ class CommandLine implements CommandHandler.Processor {
     }
 
     public void keyDown(int key, int mods, boolean rep) {
-        blinkTimeOrig = System.currentTimeMillis();
+        blinkTimeOrig = FrameClock.now();
         if (ESC.matches(key, mods)) {
             if (suggsFocused)
                 suggsFocused = false;
@@ -450,7 +463,7 @@ class CommandLine implements CommandHandler.Processor {
         float my = ctx.mouseWindowY();
 
         if (mouseDown) {
-            blinkTimeOrig = System.currentTimeMillis();
+            blinkTimeOrig = FrameClock.now();
             int c = hoverChar(mx);
             if (c > grabbedChar) {
                 editor.selFrom = grabbedChar;
@@ -471,24 +484,32 @@ class CommandLine implements CommandHandler.Processor {
     }
 
     private int hoverChar(float mx) {
-        float dist = Float.POSITIVE_INFINITY;
-        int nearest = 0;
-
+        float x = mx + scrollX - 20;
         int len = text.length();
-        for (int i = 0; i <= len; i++) {
-            float left = charPos[i] - scrollX + 20;
 
-            float ld = Math.abs(left - mx);
-            if (ld < dist) {
-                dist = ld;
-                nearest = i;
-            }
+        // charPos never decreases, so find the first position right of the mouse and compare it with the one before
+        int hi = searchCharPos(x, len, true);
+        if (hi == 0)
+            return 0;
 
-            if (left > mx) {
-                break;
-            }
+        int lo = searchCharPos(charPos[hi - 1], len, false);
+        if (hi > len)
+            return lo;
+
+        return x - charPos[lo] <= charPos[hi] - x ? lo : hi;
+    }
+
+    private int searchCharPos(float x, int len, boolean after) {
+        int lo = 0, hi = len + 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            float p = charPos[mid];
+            if (after ? p > x : p >= x)
+                hi = mid;
+            else
+                lo = mid + 1;
         }
-        return nearest;
+        return lo;
     }
 
     private void enter(String command) {
@@ -517,13 +538,14 @@ class CommandLine implements CommandHandler.Processor {
                 handler.process(text, editor.selFrom, this);
             }
 
-            processColors();
+            processColors(text, highlights, processedHighlights);
             processSuggestions(previouslySelectedSugg);
             processErrors();
         }
     }
 
-    private void processColors() {
+    // Flattens overlapping highlights into consecutive runs of one color each, later highlights win
+    static void processColors(String text, List<Highlight> highlights, List<Highlight> processedHighlights) {
         int len = text.length();
         processedHighlights.clear();
         int lastChange = 0;
@@ -573,19 +595,34 @@ class CommandLine implements CommandHandler.Processor {
     private void processPositions() {
         int len = text.length() + 1;
         if (len > charPos.length) {
-            charPos = new float[len + 32];
+            charPos = Arrays.copyOf(charPos, len + 32);
         }
 
-        ctx.locateHudText(ENDCHAR, 0, 0, 16, tbox);
-        float pw = tbox.hi.x - tbox.lo.x;
-
-        for (int i = 0; i < len; i++) {
-            String sub = text.substring(0, i) + ENDCHAR;
+        // Only the part after the edit moved, but start one character earlier since kerning depends on the previous
+        // glyph
+        int from = 0;
+        if (posText != null) {
+            int max = Math.min(posText.length(), text.length());
+            while (from < max && posText.charAt(from) == text.charAt(from))
+                from++;
 
-            ctx.locateHudText(sub, 0, 0, 16, tbox);
-            float off = tbox.hi.x - tbox.lo.x - pw;
-            charPos[i] = off;
+            if (from > 0)
+                from--;
+            if (from > 0 && Character.isLowSurrogate(text.charAt(from)))
+                from--;
         }
+
+        AlignX ax = ctx.alignX();
+        AlignY ay = ctx.alignY();
+        String font = ctx.font();
+
+        ctx.font(Font.BOLD);
+        ctx.textAlign(AlignX.LEFT, ay);
+        ctx.locateHudGlyphs(text.substring(from), from == 0 ? 0 : charPos[from], 0, 16, charPos, from);
+        ctx.textAlign(ax, ay);
+        ctx.font(font);
+
+        posText = text;
     }
 
 
@@ -818,7 +855,8 @@ class CommandLine implements CommandHandler.Processor {
             // Cursor
             //
             int pos = editor.selLeft ? editor.selFrom : editor.selTo;
-            if ((System.currentTimeMillis() - blinkTimeOrig) % 1000 <= 500) {
+            cursorShown = cursorShown();
+            if (cursorShown) {
                 if (editor.ins) {
                     ctx.begin();
                     ctx.moveToHud(20 + charPos[pos] - scrollX, loY);
@@ -0,0 +1,816 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.joml.Vector2fc;
+
+import java.util.Arrays;
+
+/**
+ * A retained list of world space drawing commands, stored in flat primitive arrays. Record it once and draw it every
+ * frame using {@link GeometryContext#drawList}.
+ * <p>
+ * Consecutive opaque segments, and consecutive opaque points of the same marker, color and size, are recorded as one
+ * batch and replayed through the bulk drawing methods, so that they are culled, transformed and drawn as one path.
+ * Translucent primitives are recorded one by one, because drawing them as one path would change how their overlaps
+ * blend.
+ */
+public class DisplayList {
+    private static final int SEGMENT = 0;
+    private static final int RAY = 1;
+    private static final int LINE = 2;
+    private static final int POINT_CIRCLE = 3;
+    private static final int POINT_SQUARE = 4;
+    private static final int POINT_DIAMOND = 5;
+    private static final int POINT_HEXAGON = 6;
+    private static final int POINT_CIRCLE_OUT = 7;
+    private static final int POINT_SQUARE_OUT = 8;
+    private static final int POINT_DIAMOND_OUT = 9;
+    private static final int POINT_HEXAGON_OUT = 10;
+    private static final int POINT_PLUS = 11;
+    private static final int POINT_X = 12;
+    private static final int POINT_STAR = 13;
+    private static final int NORMAL = 14;
+    private static final int ARROW_END = 15;
+    private static final int LINE_DASH = 16;
+    private static final int LINE_CROSS = 17;
+    private static final int BEGIN = 18;
+    private static final int CLOSE = 19;
+    private static final int MOVE_TO = 20;
+    private static final int LINE_TO = 21;
+    private static final int QUAD_TO = 22;
+    private static final int CUBIC_TO = 23;
+    private static final int ARC_TO = 24;
+    private static final int CIRCLE = 25;
+    private static final int ELLIPSE = 26;
+    private static final int RECT = 27;
+    private static final int ROUND_RECT = 28;
+    private static final int ARC = 29;
+    private static final int FILL = 30;
+    private static final int STROKE = 31;
+    private static final int TEXT = 32;
+    private static final int TEXT_BG = 33;
+    private static final int TEXT_BOX = 34;
+    private static final int TEXT_BOX_BG = 35;
+    private static final int TEXT_ALIGN = 36;
+    private static final int FONT = 37;
+    private static final int BATCH = 38;
+
+    private static final AlignX[] ALIGN_X = AlignX.values();
+    private static final AlignY[] ALIGN_Y = AlignY.values();
+
+    private byte[] ops = new byte[64];
+    private float[] floats = new float[256];
+    private int[] ints = new int[64];
+    private String[] strings = new String[8];
+
+    private int opCount, floatCount, intCount, stringCount;
+
+    // Coordinates of batched segments and points, with the number of coordinates in each batch
+    private float[][] batches = new float[8][];
+    private int[] batchFloats = new int[8];
+    private int batchCount;
+
+    // The last op, if a next primitive of the same style may join it. Its coordinates start at joinFloats, and joinBatch
+    // is its batch, or -1 while it is still recorded as a single primitive
+    private int joinOp = -1;
+    private int joinCol;
+    private float joinA, joinB;
+    private int joinFloats;
+    private int joinBatch;
+
+    public int size() {
+        return opCount;
+    }
+
+    public boolean isEmpty() {
+        return opCount == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(strings, 0, stringCount, null);
+        opCount = 0;
+        floatCount = 0;
+        intCount = 0;
+        stringCount = 0;
+        batchCount = 0;
+        joinOp = -1;
+    }
+
+    public void trim() {
+        ops = Arrays.copyOf(ops, opCount);
+        floats = Arrays.copyOf(floats, floatCount);
+        ints = Arrays.copyOf(ints, intCount);
+        strings = Arrays.copyOf(strings, stringCount);
+        batches = Arrays.copyOf(batches, batchCount);
+        batchFloats = Arrays.copyOf(batchFloats, batchCount);
+        for (int b = 0; b < batchCount; b++)
+            batches[b] = Arrays.copyOf(batches[b], batchFloats[b]);
+    }
+
+    public void drawSegment(float x1, float y1, float x2, float y2, int col, float wdt) {
+        if (join(SEGMENT, col, wdt, 0, 4)) {
+            batch(x1, y1);
+            batch(x2, y2);
+            return;
+        }
+
+        op(SEGMENT);
+        int start = floatCount;
+        f(x1, y1, x2, y2, wdt);
+        i(col);
+        joinable(SEGMENT, col, wdt, 0, start);
+    }
+
+    public void drawSegment(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawSegment(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    public void drawRay(float x1, float y1, float x2, float y2, int col, float wdt) {
+        op(RAY);
+        f(x1, y1, x2, y2, wdt);
+        i(col);
+    }
+
+    public void drawRay(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawRay(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    public void drawLine(float x1, float y1, float x2, float y2, int col, float wdt) {
+        op(LINE);
+        f(x1, y1, x2, y2, wdt);
+        i(col);
+    }
+
+    public void drawLine(Vector2fc p1, Vector2fc p2, int col, float wdt) {
+        drawLine(p1.x(), p1.y(), p2.x(), p2.y(), col, wdt);
+    }
+
+    public void drawPointCircle(float x, float y, int col, float s) {
+        point(POINT_CIRCLE, x, y, col, s);
+    }
+
+    public void drawPointCircle(Vector2fc pt, int col, float s) {
+        drawPointCircle(pt.x(), pt.y(), col, s);
+    }
+
+    public void drawPointSquare(float x, float y, int col, float s) {
+        point(POINT_SQUARE, x, y, col, s);
+    }
+
+    public void drawPointSquare(Vector2fc pt, int col, float s) {
+        drawPointSquare(pt.x(), pt.y(), col, s);
+    }
+
+    public void drawPointDiamond(float x, float y, int col, float s) {
+        point(POINT_DIAMOND, x, y, col, s);
+    }
+
+    public void drawPointDiamond(Vector2fc pt, int col, float s) {
+        drawPointDiamond(pt.x(), pt.y(), col, s);
+    }
+
+    public void drawPointHexagon(float x, float y, int col, float s) {
+        point(POINT_HEXAGON, x, y, col, s);
+    }
+
+    public void drawPointHexagon(Vector2fc pt, int col, float s) {
+        drawPointHexagon(pt.x(), pt.y(), col, s);
+    }
+
+    public void drawPointCircleOut(float x, float y, int col, float s, float wdt) {
+        point(POINT_CIRCLE_OUT, x, y, col, s, wdt);
+    }
+
+    public void drawPointCircleOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointCircleOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointSquareOut(float x, float y, int col, float s, float wdt) {
+        point(POINT_SQUARE_OUT, x, y, col, s, wdt);
+    }
+
+    public void drawPointSquareOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointSquareOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointDiamondOut(float x, float y, int col, float s, float wdt) {
+        point(POINT_DIAMOND_OUT, x, y, col, s, wdt);
+    }
+
+    public void drawPointDiamondOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointDiamondOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointHexagonOut(float x, float y, int col, float s, float wdt) {
+        point(POINT_HEXAGON_OUT, x, y, col, s, wdt);
+    }
+
+    public void drawPointHexagonOut(Vector2fc pt, int col, float s, float wdt) {
+        drawPointHexagonOut(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointPlus(float x, float y, int col, float s, float wdt) {
+        point(POINT_PLUS, x, y, col, s, wdt);
+    }
+
+    public void drawPointPlus(Vector2fc pt, int col, float s, float wdt) {
+        drawPointPlus(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointX(float x, float y, int col, float s, float wdt) {
+        point(POINT_X, x, y, col, s, wdt);
+    }
+
+    public void drawPointX(Vector2fc pt, int col, float s, float wdt) {
+        drawPointX(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawPointStar(float x, float y, int col, float s, float wdt) {
+        point(POINT_STAR, x, y, col, s, wdt);
+    }
+
+    public void drawPointStar(Vector2fc pt, int col, float s, float wdt) {
+        drawPointStar(pt.x(), pt.y(), col, s, wdt);
+    }
+
+    public void drawNormal(float x, float y, float nx, float ny, float l, int col, float wdt) {
+        op(NORMAL);
+        f(x, y, nx, ny, l, wdt);
+        i(col);
+    }
+
+    public void drawNormal(Vector2fc src, Vector2fc norm, float l, int col, float wdt) {
+        drawNormal(src.x(), src.y(), norm.x(), norm.y(), l, col, wdt);
+    }
+
+    public void drawArrowEnd(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        op(ARROW_END);
+        f(x, y, nx, ny, s, wdt);
+        i(col);
+    }
+
+    public void drawArrowEnd(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawArrowEnd(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    public void drawLineDash(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        op(LINE_DASH);
+        f(x, y, nx, ny, s, wdt);
+        i(col);
+    }
+
+    public void drawLineDash(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawLineDash(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    public void drawLineCross(float x, float y, float nx, float ny, float s, int col, float wdt) {
+        op(LINE_CROSS);
+        f(x, y, nx, ny, s, wdt);
+        i(col);
+    }
+
+    public void drawLineCross(Vector2fc src, Vector2fc dir, float s, int col, float wdt) {
+        drawLineCross(src.x(), src.y(), dir.x(), dir.y(), s, col, wdt);
+    }
+
+    public void begin() {
+        op(BEGIN);
+    }
+
+    public void close() {
+        op(CLOSE);
+    }
+
+    public void moveTo(float x, float y) {
+        op(MOVE_TO);
+        f(x, y);
+    }
+
+    public void moveTo(Vector2fc p) {
+        moveTo(p.x(), p.y());
+    }
+
+    public void lineTo(float x, float y) {
+        op(LINE_TO);
+        f(x, y);
+    }
+
+    public void lineTo(Vector2fc p) {
+        lineTo(p.x(), p.y());
+    }
+
+    public void quadTo(float cx, float cy, float x, float y) {
+        op(QUAD_TO);
+        f(cx, cy, x, y);
+    }
+
+    public void quadTo(Vector2fc c, Vector2fc p) {
+        quadTo(c.x(), c.y(), p.x(), p.y());
+    }
+
+    public void cubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        op(CUBIC_TO);
+        f(c1x, c1y, c2x, c2y, x, y);
+    }
+
+    public void cubicTo(Vector2fc c1, Vector2fc c2, Vector2fc p) {
+        cubicTo(c1.x(), c1.y(), c2.x(), c2.y(), p.x(), p.y());
+    }
+
+    public void arcTo(float x, float y, float x2, float y2, float r) {
+        op(ARC_TO);
+        f(x, y, x2, y2, r);
+    }
+
+    public void arcTo(Vector2fc p, Vector2fc p2, float r) {
+        arcTo(p.x(), p.y(), p2.x(), p2.y(), r);
+    }
+
+    public void circle(float cx, float cy, float r) {
+        op(CIRCLE);
+        f(cx, cy, r);
+    }
+
+    public void circle(Vector2fc c, float r) {
+        circle(c.x(), c.y(), r);
+    }
+
+    public void ellipse(float cx, float cy, float rx, float ry) {
+        op(ELLIPSE);
+        f(cx, cy, rx, ry);
+    }
+
+    public void ellipse(Vector2fc c, float rx, float ry) {
+        ellipse(c.x(), c.y(), rx, ry);
+    }
+
+    public void ellipse(Vector2fc c, Vector2fc r) {
+        ellipse(c, r.x(), r.y());
+    }
+
+    public void rect(float x, float y, float w, float h) {
+        op(RECT);
+        f(x, y, w, h);
+    }
+
+    public void rect(Vector2fc p, float w, float h) {
+        rect(p.x(), p.y(), w, h);
+    }
+
+    public void rect(Vector2fc p, Vector2fc s) {
+        rect(p, s.x(), s.y());
+    }
+
+    public void roundRect(float x, float y, float w, float h, float cr) {
+        op(ROUND_RECT);
+        f(x, y, w, h, cr);
+    }
+
+    public void roundRect(Vector2fc p, float w, float h, float cr) {
+        roundRect(p.x(), p.y(), w, h, cr);
+    }
+
+    public void roundRect(Vector2fc p, Vector2fc s, float cr) {
+        roundRect(p, s.x(), s.y(), cr);
+    }
+
+    public void arc(float cx, float cy, float r, float from, float to) {
+        op(ARC);
+        f(cx, cy, r, from, to);
+    }
+
+    public void arc(Vector2fc c, float r, float from, float to) {
+        arc(c.x(), c.y(), r, from, to);
+    }
+
+    public void fill(int argb) {
+        op(FILL);
+        i(argb);
+    }
+
+    public void stroke(float wdt, int argb) {
+        op(STROKE);
+        f(wdt);
+        i(argb);
+    }
+
+    public void drawText(String text, float x, float y, float ox, float oy, int col, float size) {
+        op(TEXT);
+        s(text);
+        f(x, y, ox, oy, size);
+        i(col);
+    }
+
+    public void drawTextBg(String text, float x, float y, float ox, float oy, int col, float size, float margin, float cr) {
+        op(TEXT_BG);
+        s(text);
+        f(x, y, ox, oy, size, margin, cr);
+        i(col);
+    }
+
+    public void drawTextBox(String text, float x, float y, float ox, float oy, int col, float wrapWdt, float size) {
+        op(TEXT_BOX);
+        s(text);
+        f(x, y, ox, oy, wrapWdt, size);
+        i(col);
+    }
+
+    public void drawTextBoxBg(String text, float x, float y, float ox, float oy, int col, float wrapWdt, float size, float margin, float cr) {
+        op(TEXT_BOX_BG);
+        s(text);
+        f(x, y, ox, oy, wrapWdt, size, margin, cr);
+        i(col);
+    }
+
+    public void textAlign(AlignX alignX, AlignY alignY) {
+        op(TEXT_ALIGN);
+        i(alignX.ordinal());
+        i(alignY.ordinal());
+    }
+
+    public void font(String font) {
+        op(FONT);
+        s(font);
+    }
+
+    void replay(GeometryContext ctx) {
+        byte[] ops = this.ops;
+        float[] f = floats;
+        int[] n = ints;
+        String[] s = strings;
+        int fi = 0, ii = 0, si = 0;
+
+        for (int oi = 0, l = opCount; oi < l; oi++) {
+            switch (ops[oi]) {
+                case SEGMENT -> {
+                    ctx.drawSegment(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4]);
+                    fi += 5;
+                    ii += 1;
+                }
+                case RAY -> {
+                    ctx.drawRay(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4]);
+                    fi += 5;
+                    ii += 1;
+                }
+                case LINE -> {
+                    ctx.drawLine(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4]);
+                    fi += 5;
+                    ii += 1;
+                }
+                case POINT_CIRCLE -> {
+                    ctx.drawPointCircle(f[fi], f[fi + 1], n[ii], f[fi + 2]);
+                    fi += 3;
+                    ii += 1;
+                }
+                case POINT_SQUARE -> {
+                    ctx.drawPointSquare(f[fi], f[fi + 1], n[ii], f[fi + 2]);
+                    fi += 3;
+                    ii += 1;
+                }
+                case POINT_DIAMOND -> {
+                    ctx.drawPointDiamond(f[fi], f[fi + 1], n[ii], f[fi + 2]);
+                    fi += 3;
+                    ii += 1;
+                }
+                case POINT_HEXAGON -> {
+                    ctx.drawPointHexagon(f[fi], f[fi + 1], n[ii], f[fi + 2]);
+                    fi += 3;
+                    ii += 1;
+                }
+                case POINT_CIRCLE_OUT -> {
+                    ctx.drawPointCircleOut(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_SQUARE_OUT -> {
+                    ctx.drawPointSquareOut(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_DIAMOND_OUT -> {
+                    ctx.drawPointDiamondOut(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_HEXAGON_OUT -> {
+                    ctx.drawPointHexagonOut(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_PLUS -> {
+                    ctx.drawPointPlus(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_X -> {
+                    ctx.drawPointX(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case POINT_STAR -> {
+                    ctx.drawPointStar(f[fi], f[fi + 1], n[ii], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                    ii += 1;
+                }
+                case NORMAL -> {
+                    ctx.drawNormal(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4], n[ii], f[fi + 5]);
+                    fi += 6;
+                    ii += 1;
+                }
+                case ARROW_END -> {
+                    ctx.drawArrowEnd(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4], n[ii], f[fi + 5]);
+                    fi += 6;
+                    ii += 1;
+                }
+                case LINE_DASH -> {
+                    ctx.drawLineDash(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4], n[ii], f[fi + 5]);
+                    fi += 6;
+                    ii += 1;
+                }
+                case LINE_CROSS -> {
+                    ctx.drawLineCross(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4], n[ii], f[fi + 5]);
+                    fi += 6;
+                    ii += 1;
+                }
+                case BEGIN -> ctx.begin();
+                case CLOSE -> ctx.close();
+                case MOVE_TO -> {
+                    ctx.moveTo(f[fi], f[fi + 1]);
+                    fi += 2;
+                }
+                case LINE_TO -> {
+                    ctx.lineTo(f[fi], f[fi + 1]);
+                    fi += 2;
+                }
+                case QUAD_TO -> {
+                    ctx.quadTo(f[fi], f[fi + 1], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                }
+                case CUBIC_TO -> {
+                    ctx.cubicTo(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4], f[fi + 5]);
+                    fi += 6;
+                }
+                case ARC_TO -> {
+                    ctx.arcTo(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4]);
+                    fi += 5;
+                }
+                case CIRCLE -> {
+                    ctx.circle(f[fi], f[fi + 1], f[fi + 2]);
+                    fi += 3;
+                }
+                case ELLIPSE -> {
+                    ctx.ellipse(f[fi], f[fi + 1], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                }
+                case RECT -> {
+                    ctx.rect(f[fi], f[fi + 1], f[fi + 2], f[fi + 3]);
+                    fi += 4;
+                }
+                case ROUND_RECT -> {
+                    ctx.roundRect(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4]);
+                    fi += 5;
+                }
+                case ARC -> {
+                    ctx.arc(f[fi], f[fi + 1], f[fi + 2], f[fi + 3], f[fi + 4]);
+                    fi += 5;
+                }
+                case FILL -> {
+                    ctx.fill(n[ii]);
+                    ii += 1;
+                }
+                case STROKE -> {
+                    ctx.stroke(f[fi], n[ii]);
+                    fi += 1;
+                    ii += 1;
+                }
+                case TEXT -> {
+                    ctx.drawText(s[si], f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4]);
+                    fi += 5;
+                    ii += 1;
+                    si += 1;
+                }
+                case TEXT_BG -> {
+                    ctx.drawTextBg(s[si], f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4], f[fi + 5], f[fi + 6]);
+                    fi += 7;
+                    ii += 1;
+                    si += 1;
+                }
+                case TEXT_BOX -> {
+                    ctx.drawTextBox(s[si], f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4], f[fi + 5]);
+                    fi += 6;
+                    ii += 1;
+                    si += 1;
+                }
+                case TEXT_BOX_BG -> {
+                    ctx.drawTextBoxBg(s[si], f[fi], f[fi + 1], f[fi + 2], f[fi + 3], n[ii], f[fi + 4], f[fi + 5], f[fi + 6], f[fi + 7]);
+                    fi += 8;
+                    ii += 1;
+                    si += 1;
+                }
+                case TEXT_ALIGN -> {
+                    ctx.textAlign(ALIGN_X[n[ii]], ALIGN_Y[n[ii + 1]]);
+                    ii += 2;
+                }
+                case FONT -> {
+                    ctx.font(s[si]);
+                    si += 1;
+                }
+                case BATCH -> {
+                    int b = n[ii + 1];
+                    replayBatch(ctx, n[ii], batches[b], batchFloats[b], n[ii + 2], f[fi], f[fi + 1]);
+                    fi += 2;
+                    ii += 3;
+                }
+            }
+        }
+    }
+
+    private static void replayBatch(GeometryContext ctx, int op, float[] xy, int floats, int col, float a, float b) {
+        int count = floats / 2;
+        switch (op) {
+            case SEGMENT -> ctx.drawSegments(xy, count / 2, col, a);
+            case POINT_CIRCLE -> ctx.drawPointCircle(xy, count, col, a);
+            case POINT_SQUARE -> ctx.drawPointSquare(xy, count, col, a);
+            case POINT_DIAMOND -> ctx.drawPointDiamond(xy, count, col, a);
+            case POINT_HEXAGON -> ctx.drawPointHexagon(xy, count, col, a);
+            case POINT_CIRCLE_OUT -> ctx.drawPointCircleOut(xy, count, col, a, b);
+            case POINT_SQUARE_OUT -> ctx.drawPointSquareOut(xy, count, col, a, b);
+            case POINT_DIAMOND_OUT -> ctx.drawPointDiamondOut(xy, count, col, a, b);
+            case POINT_HEXAGON_OUT -> ctx.drawPointHexagonOut(xy, count, col, a, b);
+            case POINT_PLUS -> ctx.drawPointPlus(xy, count, col, a, b);
+            case POINT_X -> ctx.drawPointX(xy, count, col, a, b);
+            case POINT_STAR -> ctx.drawPointStar(xy, count, col, a, b);
+        }
+    }
+
+    private void point(int op, float x, float y, int col, float s) {
+        if (join(op, col, s, 0, 2)) {
+            batch(x, y);
+            return;
+        }
+
+        op(op);
+        int start = floatCount;
+        f(x, y, s);
+        i(col);
+        joinable(op, col, s, 0, start);
+    }
+
+    private void point(int op, float x, float y, int col, float s, float wdt) {
+        if (join(op, col, s, wdt, 2)) {
+            batch(x, y);
+            return;
+        }
+
+        op(op);
+        int start = floatCount;
+        f(x, y, s, wdt);
+        i(col);
+        joinable(op, col, s, wdt, start);
+    }
+
+    // Marks the op that was just recorded as one that a next primitive of the same style may join
+    private void joinable(int op, int col, float a, float b, int start) {
+        if ((col >>> 24) != 0xFF)
+            return;
+
+        joinOp = op;
+        joinCol = col;
+        joinA = a;
+        joinB = b;
+        joinFloats = start;
+        joinBatch = -1;
+    }
+
+    // Whether a primitive of the given style joins the last op. The first time the last op is joined, it is turned
+    // into a batch, with its coordinates as the first primitive
+    private boolean join(int op, int col, float a, float b, int coords) {
+        if (op != joinOp || col != joinCol || a != joinA || b != joinB)
+            return false;
+
+        if (joinBatch < 0) {
+            if (batchCount == batches.length) {
+                batches = Arrays.copyOf(batches, Math.max(batchCount * 2, 8));
+                batchFloats = Arrays.copyOf(batchFloats, Math.max(batchCount * 2, 8));
+            }
+
+            // Arrays of cleared batches are reused
+            int bi = batchCount++;
+            float[] xy = batches[bi];
+            if (xy == null || xy.length < coords * 16)
+                xy = batches[bi] = new float[coords * 16];
+            System.arraycopy(floats, joinFloats, xy, 0, coords);
+            batchFloats[bi] = coords;
+
+            // Replace the single primitive with the batch
+            opCount--;
+            intCount--;
+            floatCount = joinFloats;
+
+            op(BATCH);
+            i(op);
+            i(bi);
+            i(col);
+            f(a, b);
+
+            joinOp = op;
+            joinBatch = bi;
+        }
+        return true;
+    }
+
+    // Adds a point to the batch that was just joined
+    private void batch(float x, float y) {
+        int bi = joinBatch;
+        int n = batchFloats[bi];
+        float[] xy = batches[bi];
+        if (n + 2 > xy.length)
+            xy = batches[bi] = Arrays.copyOf(xy, xy.length * 2);
+
+        xy[n] = x;
+        xy[n + 1] = y;
+        batchFloats[bi] = n + 2;
+    }
+
+    private void op(int op) {
+        if (opCount == ops.length)
+            ops = Arrays.copyOf(ops, Math.max(opCount * 2, 16));
+        ops[opCount++] = (byte) op;
+        joinOp = -1;
+    }
+
+    private void reserve(int n) {
+        if (floatCount + n > floats.length)
+            floats = Arrays.copyOf(floats, Math.max(floats.length * 2, floatCount + n));
+    }
+
+    private void f(float a) {
+        reserve(1);
+        floats[floatCount++] = a;
+    }
+
+    private void f(float a, float b) {
+        reserve(2);
+        floats[floatCount] = a;
+        floats[floatCount + 1] = b;
+        floatCount += 2;
+    }
+
+    private void f(float a, float b, float c) {
+        f(a, b);
+        f(c);
+    }
+
+    private void f(float a, float b, float c, float d) {
+        f(a, b);
+        f(c, d);
+    }
+
+    private void f(float a, float b, float c, float d, float e) {
+        f(a, b, c, d);
+        f(e);
+    }
+
+    private void f(float a, float b, float c, float d, float e, float g) {
+        f(a, b, c, d);
+        f(e, g);
+    }
+
+    private void f(float a, float b, float c, float d, float e, float g, float h) {
+        f(a, b, c, d);
+        f(e, g, h);
+    }
+
+    private void f(float a, float b, float c, float d, float e, float g, float h, float k) {
+        f(a, b, c, d);
+        f(e, g, h, k);
+    }
+
+    private void i(int v) {
+        if (intCount == ints.length)
+            ints = Arrays.copyOf(ints, Math.max(intCount * 2, 16));
+        ints[intCount++] = v;
+    }
+
+    private void s(String v) {
+        if (stringCount == strings.length)
+            strings = Arrays.copyOf(strings, Math.max(stringCount * 2, 16));
+        strings[stringCount++] = v;
+    }
+}
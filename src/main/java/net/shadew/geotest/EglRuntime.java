@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.egl.EGL;
+import org.lwjgl.egl.EGLCapabilities;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.egl.EGL10.*;
+import static org.lwjgl.egl.EGL12.*;
+import static org.lwjgl.egl.EGL14.*;
+import static org.lwjgl.egl.EGL15.*;
+import static org.lwjgl.egl.EXTPlatformBase.*;
+import static org.lwjgl.nanovg.NanoVGGL3.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.system.MemoryStack.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/*
+ * The offscreen counterpart of TestRuntime: an OpenGL 3.2 core context created through EGL, without a window, that
+ * renders into a framebuffer object. It prefers Mesa's surfaceless platform, so that it works without a display server,
+ * and falls back to the default display with a small pbuffer surface. The context is current on the thread that
+ * created it, and must only be used from that thread.
+ */
+final class EglRuntime {
+    // From EGL_MESA_platform_surfaceless, which LWJGL has no bindings for
+    private static final int EGL_PLATFORM_SURFACELESS_MESA = 0x31DD;
+
+    private final int width, height;
+    private int samples;
+
+    private long display = EGL_NO_DISPLAY;
+    private long context = EGL_NO_CONTEXT;
+    private long surface = EGL_NO_SURFACE;
+    private long nvg = NULL;
+
+    // Multisampled render target, resolved into a plain one to read back
+    private int fbo, colorRbo, depthRbo;
+    private int resolveFbo, resolveRbo;
+
+    EglRuntime(int width, int height, int samples) {
+        this.width = width;
+        this.height = height;
+        this.samples = samples;
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    long nvg() {
+        return nvg;
+    }
+
+    void init() {
+        String clientExts = eglQueryString(EGL_NO_DISPLAY, EGL_EXTENSIONS);
+        if (clientExts != null && clientExts.contains("EGL_MESA_platform_surfaceless"))
+            display = eglGetPlatformDisplayEXT(EGL_PLATFORM_SURFACELESS_MESA, EGL_DEFAULT_DISPLAY, (IntBuffer) null);
+        if (display == EGL_NO_DISPLAY)
+            display = eglGetDisplay(EGL_DEFAULT_DISPLAY);
+        if (display == EGL_NO_DISPLAY)
+            throw new RuntimeException("No EGL display available");
+
+        try (MemoryStack mem = stackPush()) {
+            IntBuffer major = mem.mallocInt(1);
+            IntBuffer minor = mem.mallocInt(1);
+            if (!eglInitialize(display, major, minor))
+                throw new RuntimeException("Failed to init EGL: error 0x" + Integer.toHexString(eglGetError()));
+
+            EGLCapabilities caps = EGL.createDisplayCapabilities(display, major.get(0), minor.get(0));
+            boolean surfaceless = caps.EGL_KHR_surfaceless_context;
+
+            if (!eglBindAPI(EGL_OPENGL_API))
+                throw new RuntimeException("EGL display does not support OpenGL");
+
+            IntBuffer configAttribs = mem.ints(
+                EGL_SURFACE_TYPE, surfaceless ? 0 : EGL_PBUFFER_BIT,
+                EGL_RENDERABLE_TYPE, EGL_OPENGL_BIT,
+                EGL_RED_SIZE, 8,
+                EGL_GREEN_SIZE, 8,
+                EGL_BLUE_SIZE, 8,
+                EGL_ALPHA_SIZE, 8,
+                EGL_NONE
+            );
+            PointerBuffer configs = mem.mallocPointer(1);
+            IntBuffer count = mem.mallocInt(1);
+            if (!eglChooseConfig(display, configAttribs, configs, count) || count.get(0) == 0)
+                throw new RuntimeException("No suitable EGL config");
+            long config = configs.get(0);
+
+            IntBuffer contextAttribs = mem.ints(
+                EGL_CONTEXT_MAJOR_VERSION, 3,
+                EGL_CONTEXT_MINOR_VERSION, 2,
+                EGL_CONTEXT_OPENGL_PROFILE_MASK, EGL_CONTEXT_OPENGL_CORE_PROFILE_BIT,
+                EGL_NONE
+            );
+            context = eglCreateContext(display, config, EGL_NO_CONTEXT, contextAttribs);
+            if (context == EGL_NO_CONTEXT)
+                throw new RuntimeException("Failed to create EGL context: error 0x" + Integer.toHexString(eglGetError()));
+
+            if (!surfaceless) {
+                surface = eglCreatePbufferSurface(display, config, mem.ints(EGL_WIDTH, 1, EGL_HEIGHT, 1, EGL_NONE));
+                if (surface == EGL_NO_SURFACE)
+                    throw new RuntimeException("Failed to create EGL pbuffer: error 0x" + Integer.toHexString(eglGetError()));
+            }
+
+            if (!eglMakeCurrent(display, surface, surface, context))
+                throw new RuntimeException("Failed to make EGL context current: error 0x" + Integer.toHexString(eglGetError()));
+        }
+
+        GL.createCapabilities();
+        createFramebuffer();
+
+        // Same flags as TestRuntime, which relies on multisampling for anti-aliasing too
+        nvg = nvgCreate(0);
+        if (nvg == NULL)
+            throw new RuntimeException("Failed to create NanoVG context");
+    }
+
+    private void createFramebuffer() {
+        samples = Math.min(samples, glGetInteger(GL_MAX_SAMPLES));
+
+        fbo = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+
+        colorRbo = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, colorRbo);
+        storage(GL_RGBA8);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, colorRbo);
+
+        // NanoVG needs a stencil buffer to fill concave shapes
+        depthRbo = glGenRenderbuffers();
+        glBindRenderbuffer(GL_RENDERBUFFER, depthRbo);
+        storage(GL_DEPTH24_STENCIL8);
+        glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_DEPTH_STENCIL_ATTACHMENT, GL_RENDERBUFFER, depthRbo);
+        checkFramebuffer();
+
+        if (samples > 1) {
+            resolveFbo = glGenFramebuffers();
+            glBindFramebuffer(GL_FRAMEBUFFER, resolveFbo);
+
+            resolveRbo = glGenRenderbuffers();
+            glBindRenderbuffer(GL_RENDERBUFFER, resolveRbo);
+            glRenderbufferStorage(GL_RENDERBUFFER, GL_RGBA8, width, height);
+            glFramebufferRenderbuffer(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_RENDERBUFFER, resolveRbo);
+            checkFramebuffer();
+        } else {
+            resolveFbo = fbo;
+        }
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+    }
+
+    // A single sample still makes a multisampled buffer, which can't be read from directly
+    private void storage(int format) {
+        if (samples > 1)
+            glRenderbufferStorageMultisample(GL_RENDERBUFFER, samples, format, width, height);
+        else
+            glRenderbufferStorage(GL_RENDERBUFFER, format, width, height);
+    }
+
+    private static void checkFramebuffer() {
+        int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        if (status != GL_FRAMEBUFFER_COMPLETE)
+            throw new RuntimeException("Incomplete framebuffer: status 0x" + Integer.toHexString(status));
+    }
+
+    void beginFrame(float r, float g, float b, float a) {
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+        glViewport(0, 0, width, height);
+        glClearColor(r, g, b, a);
+        glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
+    }
+
+    // Blocks until the frame is rendered, so that frame times include the work done by the driver
+    void finish() {
+        glFinish();
+    }
+
+    // Reads the last frame into the given buffer, as rows of RGBA pixels from the top left
+    void read(ByteBuffer out) {
+        if (resolveFbo != fbo) {
+            glBindFramebuffer(GL_READ_FRAMEBUFFER, fbo);
+            glBindFramebuffer(GL_DRAW_FRAMEBUFFER, resolveFbo);
+            glBlitFramebuffer(0, 0, width, height, 0, 0, width, height, GL_COLOR_BUFFER_BIT, GL_NEAREST);
+        }
+
+        glBindFramebuffer(GL_READ_FRAMEBUFFER, resolveFbo);
+        glPixelStorei(GL_PACK_ALIGNMENT, 1);
+        glReadPixels(0, 0, width, height, GL_RGBA, GL_UNSIGNED_BYTE, out);
+        glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+
+        // OpenGL reads bottom-up
+        int stride = width * 4;
+        byte[] top = new byte[stride], bottom = new byte[stride];
+        for (int y = 0, y2 = height - 1; y < y2; y++, y2--) {
+            out.get(y * stride, top);
+            out.get(y2 * stride, bottom);
+            out.put(y * stride, bottom);
+            out.put(y2 * stride, top);
+        }
+    }
+
+    void dispose() {
+        if (nvg != NULL)
+            nvgDelete(nvg);
+        nvg = NULL;
+
+        if (context != EGL_NO_CONTEXT) {
+            if (resolveFbo != fbo) {
+                glDeleteFramebuffers(resolveFbo);
+                glDeleteRenderbuffers(resolveRbo);
+            }
+            glDeleteFramebuffers(fbo);
+            glDeleteRenderbuffers(colorRbo);
+            glDeleteRenderbuffers(depthRbo);
+            GL.setCapabilities(null);
+
+            eglMakeCurrent(display, EGL_NO_SURFACE, EGL_NO_SURFACE, EGL_NO_CONTEXT);
+            eglDestroyContext(display, context);
+            context = EGL_NO_CONTEXT;
+        }
+        if (surface != EGL_NO_SURFACE)
+            eglDestroySurface(display, surface);
+        surface = EGL_NO_SURFACE;
+
+        if (display != EGL_NO_DISPLAY)
+            eglTerminate(display);
+        display = EGL_NO_DISPLAY;
+    }
+}
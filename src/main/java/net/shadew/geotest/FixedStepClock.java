@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/**
+ * A clock that only advances when it is stepped, by exactly one frame at a given frame rate. Frame times are computed
+ * from the frame number rather than accumulated, so they don't drift when a frame is not a whole number of
+ * milliseconds.
+ */
+public class FixedStepClock extends FrameClock {
+    private final long start;
+    private final double fps;
+    private long frame;
+
+    // Starts at the time of the current clock, so that running animations continue where they are
+    public FixedStepClock(double fps) {
+        this(fps, FrameClock.now());
+    }
+
+    public FixedStepClock(double fps, long start) {
+        if (fps <= 0)
+            throw new RuntimeException("Frame rate must be positive, got " + fps);
+
+        this.fps = fps;
+        this.start = start;
+    }
+
+    public double fps() {
+        return fps;
+    }
+
+    public long frame() {
+        return frame;
+    }
+
+    public void step() {
+        frame++;
+    }
+
+    @Override
+    public long millis() {
+        return start + Math.round(frame * 1000 / fps);
+    }
+}
@@ -43,6 +43,11 @@ public class Font {
     public static final String EXTRA_BOLD_ITALIC = "JetBrainsMono-ExtraBoldItalic";
 
     static int load(long nvg, String resource) {
+        return nvgCreateFontMem(nvg, resource, read(resource), 1);
+    }
+
+    // Reads a font into an off-heap buffer, which the caller must free
+    static ByteBuffer read(String resource) {
         InputStream in = Font.class.getClassLoader().getResourceAsStream("fonts/" + resource + ".ttf");
         if (in == null)
             throw new RuntimeException("No such font found in resources: " + resource);
@@ -51,7 +56,7 @@ public class Font {
             byte[] bytes = in.readAllBytes();
             ByteBuffer ttf = memAlloc(bytes.length);
             ttf.put(bytes).flip();
-            return nvgCreateFontMem(nvg, resource, ttf, 1);
+            return ttf;
         } catch (IOException e) {
             throw new RuntimeException("Failed to load font: " + resource, e);
         }
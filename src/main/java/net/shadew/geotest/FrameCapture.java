@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.stb.STBImageWrite.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/*
+ * Captures rendered frames to PNG files. Frames are read back asynchronously into a ring of pixel buffer objects, so
+ * the render thread does not wait for glReadPixels, and are copied out a few frames later, once their fence has
+ * signalled. Encoding happens on a pool of worker threads. Frames are never dropped: if the ring is full the render
+ * thread waits for the oldest frame, and if the encoders fall behind it waits for a free frame buffer.
+ */
+final class FrameCapture {
+    private static final int RING = 3;
+    private static final long WAIT_NANOS = 1_000_000_000;
+
+    private final ExecutorService encoders;
+    private final Semaphore buffers;
+    private final ConcurrentLinkedQueue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    // Row buffers for flipping frames, one pair per encoder thread
+    private final ThreadLocal<byte[][]> rows = ThreadLocal.withInitial(() -> new byte[2][0]);
+
+    private final int[] pbos = new int[RING];
+    private final long[] fences = new long[RING];
+    private final Path[] targets = new Path[RING];
+    private int head, pending;
+    private int width, height;
+
+    // Size of the frame buffers that may go back into the pool, read by the encoders when they release a buffer
+    private volatile int bufferSize;
+
+    private Path screenshot;
+    private Path sequence;
+    private int sequenceFrame;
+
+    FrameCapture(int threads) {
+        encoders = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Frame encoder");
+            t.setDaemon(true);
+            return t;
+        });
+        buffers = new Semaphore(threads * 2);
+    }
+
+    // Captures the next frame into the given file
+    void screenshot(Path file) {
+        screenshot = file;
+    }
+
+    // Captures every frame into the given directory, until stopped
+    void startSequence(Path dir) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create capture directory " + dir, e);
+        }
+        sequence = dir;
+        sequenceFrame = 0;
+    }
+
+    void stopSequence() {
+        sequence = null;
+    }
+
+    boolean capturingSequence() {
+        return sequence != null;
+    }
+
+    // Called after a frame is drawn into the back buffer, before buffers are swapped
+    void endFrame(int w, int h) {
+        collect(0);
+
+        Path target;
+        if (screenshot != null) {
+            target = screenshot;
+            screenshot = null;
+        } else if (sequence != null) {
+            target = sequence.resolve(String.format("frame-%05d.png", sequenceFrame++));
+        } else {
+            return;
+        }
+
+        if (w != width || h != height)
+            resize(w, h);
+        if (pending == RING)
+            collect(1);
+
+        int slot = (head + pending) % RING;
+        glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[slot]);
+        glReadBuffer(GL_BACK);
+        glPixelStorei(GL_PACK_ALIGNMENT, 1);
+        glReadPixels(0, 0, w, h, GL_RGBA, GL_UNSIGNED_BYTE, 0L);
+        glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+
+        fences[slot] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        targets[slot] = target;
+        pending++;
+    }
+
+    private void resize(int w, int h) {
+        collect(pending);
+        deletePbos();
+
+        width = w;
+        height = h;
+        bufferSize = w * h * 4;
+        for (int i = 0; i < RING; i++) {
+            pbos[i] = glGenBuffers();
+            glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[i]);
+            glBufferData(GL_PIXEL_PACK_BUFFER, (long) w * h * 4, GL_STREAM_READ);
+        }
+        glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+
+        // Buffers of the old size are freed as they come back, the few that are released while this runs are dropped in
+        // encode
+        ByteBuffer buf;
+        while ((buf = freeBuffers.poll()) != null)
+            memFree(buf);
+    }
+
+    // Hands finished readbacks to the encoders, waiting for at least the given number of them
+    private void collect(int atLeast) {
+        while (pending > 0) {
+            int slot = head;
+            int status = glClientWaitSync(fences[slot], 0, 0);
+            while (status == GL_TIMEOUT_EXPIRED && atLeast > 0)
+                status = glClientWaitSync(fences[slot], GL_SYNC_FLUSH_COMMANDS_BIT, WAIT_NANOS);
+            if (status == GL_TIMEOUT_EXPIRED)
+                return;
+            if (status == GL_WAIT_FAILED)
+                throw new RuntimeException("Failed to wait for frame readback");
+
+            glDeleteSync(fences[slot]);
+            encode(slot);
+            head = (head + 1) % RING;
+            pending--;
+            atLeast--;
+        }
+    }
+
+    private void encode(int slot) {
+        int w = width, h = height;
+        int size = w * h * 4;
+        Path target = targets[slot];
+        targets[slot] = null;
+
+        buffers.acquireUninterruptibly();
+        ByteBuffer frame;
+        while ((frame = freeBuffers.poll()) != null && frame.capacity() != size)
+            memFree(frame);
+        if (frame == null)
+            frame = memAlloc(size);
+
+        glBindBuffer(GL_PIXEL_PACK_BUFFER, pbos[slot]);
+        ByteBuffer mapped = glMapBufferRange(GL_PIXEL_PACK_BUFFER, 0, size, GL_MAP_READ_BIT);
+        if (mapped != null) {
+            memCopy(mapped, frame);
+            glUnmapBuffer(GL_PIXEL_PACK_BUFFER);
+        }
+        glBindBuffer(GL_PIXEL_PACK_BUFFER, 0);
+
+        if (mapped == null) {
+            release(frame);
+            throw new RuntimeException("Failed to map frame readback");
+        }
+
+        ByteBuffer pixels = frame;
+        encoders.execute(() -> {
+            try {
+                flip(pixels, w, h);
+                if (!stbi_write_png(target.toString(), w, h, 4, pixels, w * 4))
+                    System.err.println("Failed to write frame to " + target);
+            } finally {
+                release(pixels);
+            }
+        });
+    }
+
+    private void release(ByteBuffer frame) {
+        if (frame.capacity() == bufferSize)
+            freeBuffers.offer(frame);
+        else
+            memFree(frame);
+        buffers.release();
+    }
+
+    // OpenGL reads bottom-up
+    private void flip(ByteBuffer pixels, int w, int h) {
+        int stride = w * 4;
+        byte[][] rows = this.rows.get();
+        if (rows[0].length < stride) {
+            rows[0] = new byte[stride];
+            rows[1] = new byte[stride];
+        }
+
+        byte[] top = rows[0], bottom = rows[1];
+        for (int y = 0, y2 = h - 1; y < y2; y++, y2--) {
+            pixels.get(y * stride, top, 0, stride);
+            pixels.get(y2 * stride, bottom, 0, stride);
+            pixels.put(y * stride, bottom, 0, stride);
+            pixels.put(y2 * stride, top, 0, stride);
+        }
+    }
+
+    private void deletePbos() {
+        for (int i = 0; i < RING; i++) {
+            if (pbos[i] != 0)
+                glDeleteBuffers(pbos[i]);
+            pbos[i] = 0;
+        }
+    }
+
+    void dispose() {
+        collect(pending);
+        deletePbos();
+
+        encoders.shutdown();
+        try {
+            if (!encoders.awaitTermination(1, TimeUnit.MINUTES))
+                System.err.println("Frame encoders did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        ByteBuffer buf;
+        while ((buf = freeBuffers.poll()) != null)
+            memFree(buf);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/**
+ * The source of time for everything that animates: {@link Animation}, {@link GeometryContext#millis()} and the
+ * blinking cursor of the command line. By default this is the system clock, but a {@link FixedStepClock} can be
+ * installed to render animated scenes deterministically, at any speed.
+ * <p>
+ * Contexts and animations run on {@link #GLOBAL}, which follows the installed clock, unless they are given a clock of
+ * their own. A clock also keeps track of how long animations on it may still be moving, so that on-demand rendering
+ * keeps drawing frames.
+ */
+public abstract class FrameClock {
+    public static final FrameClock SYSTEM = new FrameClock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile FrameClock current = SYSTEM;
+
+    // Follows whichever clock is installed
+    public static final FrameClock GLOBAL = new FrameClock() {
+        @Override
+        public long millis() {
+            return current.millis();
+        }
+    };
+
+    // Time until which any started animation may still be moving
+    private volatile long activeUntil = Long.MIN_VALUE;
+
+    public static FrameClock current() {
+        return current;
+    }
+
+    public static void use(FrameClock clock) {
+        current = clock == null || clock == GLOBAL ? SYSTEM : clock;
+    }
+
+    // The time of the current clock
+    public static long now() {
+        return current.millis();
+    }
+
+    /**
+     * The current time in milliseconds. Only differences between times are meaningful.
+     */
+    public abstract long millis();
+
+    synchronized void active(long until) {
+        if (until > activeUntil)
+            activeUntil = until;
+    }
+
+    boolean anyActive() {
+        // Some slack, so that the frame that applies the final state is drawn as well
+        return millis() <= activeUntil + 100;
+    }
+}
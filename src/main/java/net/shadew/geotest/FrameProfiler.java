@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/*
+ * Records how long each phase of the last frames took, and how many bytes the render thread allocated per frame. All
+ * data is kept in preallocated ring buffers of primitives, so recording a frame does not allocate anything itself.
+ * Phases can be entered multiple times per frame, their times add up.
+ */
+final class FrameProfiler {
+    static final int INPUT = 0;
+    static final int SCENE = 1;
+    static final int CLI = 2;
+    static final int END_FRAME = 3;
+    static final int SWAP = 4;
+    static final int PHASES = 5;
+
+    private static final String[] NAMES = {"Input", "Scene", "Command line", "End frame", "Swap"};
+
+    private final long[][] phases;
+    private final long[] frames;
+    private final long[] allocated;
+    private final long[] current = new long[PHASES];
+    private final long[] started = new long[PHASES];
+    private final com.sun.management.ThreadMXBean threads;
+
+    private int next, count;
+    private long frameStart, allocStart;
+
+    FrameProfiler(int capacity) {
+        phases = new long[PHASES][capacity];
+        frames = new long[capacity];
+        allocated = new long[capacity];
+
+        // Allocation counting is a HotSpot extension, without it the allocated bytes are always 0
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                && mx.isThreadAllocatedMemorySupported()) {
+            mx.setThreadAllocatedMemoryEnabled(true);
+            threads = mx;
+        } else {
+            threads = null;
+        }
+    }
+
+    static String name(int phase) {
+        return NAMES[phase];
+    }
+
+    boolean measuresAllocation() {
+        return threads != null;
+    }
+
+    void beginFrame() {
+        Arrays.fill(current, 0);
+        allocStart = allocatedBytes();
+        frameStart = System.nanoTime();
+    }
+
+    void begin(int phase) {
+        started[phase] = System.nanoTime();
+    }
+
+    void end(int phase) {
+        current[phase] += System.nanoTime() - started[phase];
+    }
+
+    void endFrame() {
+        frames[next] = System.nanoTime() - frameStart;
+        for (int p = 0; p < PHASES; p++)
+            phases[p][next] = current[p];
+        allocated[next] = allocatedBytes() - allocStart;
+
+        next = (next + 1) % frames.length;
+        if (count < frames.length)
+            count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int capacity() {
+        return frames.length;
+    }
+
+    // The i-th most recent frame, where 0 is the latest frame. Times are in nanoseconds.
+    long frame(int i) {
+        return frames[index(i)];
+    }
+
+    long phase(int phase, int i) {
+        return phases[phase][index(i)];
+    }
+
+    long allocated(int i) {
+        return allocated[index(i)];
+    }
+
+    private int index(int i) {
+        return Math.floorMod(next - 1 - i, frames.length);
+    }
+
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+}
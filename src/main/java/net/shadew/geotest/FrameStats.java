@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.util.Arrays;
+
+/*
+ * Rolling statistics over the durations of the last frames. Frames are measured from the start of one frame to the
+ * start of the next, frames that follow an idle wait are not recorded.
+ */
+public class FrameStats {
+    private final long[] times;
+    private final long[] sorted;
+    private int next;
+    private int count;
+    private boolean sortedValid;
+
+    public FrameStats(int capacity) {
+        times = new long[capacity];
+        sorted = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        times[next] = nanos;
+        next = (next + 1) % times.length;
+        if (count < times.length)
+            count++;
+        sortedValid = false;
+    }
+
+    public void clear() {
+        next = 0;
+        count = 0;
+        sortedValid = false;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    // The i-th most recent frame time, in nanoseconds, where 0 is the latest frame
+    public long recent(int i) {
+        return times[Math.floorMod(next - 1 - i, times.length)];
+    }
+
+    public double minMillis() {
+        return count == 0 ? 0 : sorted()[0] / 1e6;
+    }
+
+    public double maxMillis() {
+        return count == 0 ? 0 : sorted()[count - 1] / 1e6;
+    }
+
+    public double averageMillis() {
+        if (count == 0)
+            return 0;
+
+        long sum = 0;
+        for (int i = 0; i < count; i++)
+            sum += times[i];
+        return sum / 1e6 / count;
+    }
+
+    public double percentileMillis(double p) {
+        if (count == 0)
+            return 0;
+
+        // Nearest rank
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted()[Math.min(Math.max(rank - 1, 0), count - 1)] / 1e6;
+    }
+
+    public double fps() {
+        double avg = averageMillis();
+        return avg == 0 ? 0 : 1000 / avg;
+    }
+
+    private long[] sorted() {
+        if (!sortedValid) {
+            System.arraycopy(times, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            sortedValid = true;
+        }
+        return sorted;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d frames, %.1f fps: min %.2f ms, avg %.2f ms, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms",
+            count, fps(),
+            minMillis(), averageMillis(),
+            percentileMillis(50), percentileMillis(95), percentileMillis(99),
+            maxMillis()
+        );
+    }
+}
@@ -22,6 +22,8 @@ import org.joml.Vector2fc;
 import org.joml.Vector3fc;
 import org.joml.Vector4fc;
 
+import java.nio.FloatBuffer;
+
 public interface GeometryContext {
     long nvg();
 
@@ -38,6 +40,8 @@ public interface GeometryContext {
     void resetTime();
     long millis();
     float seconds();
+    FrameClock clock();
+    AnimationScheduler animations();
 
     void drawText(String text, float x, float y, float ox, float oy, int col, float size);
     void drawTextBg(String text, float x, float y, float ox, float oy, int col, float size, float margin, float cr);
@@ -52,14 +56,27 @@ public interface GeometryContext {
     void drawHudTextBoxBg(String text, float x, float y, int col, float wrapWdt, float size, float margin, float cr);
     void locateHudText(String text, float x, float y, float size, TextBox out);
     void locateHudTextBox(String text, float x, float y, float wrapWdt, float size, TextBox out);
+    void locateHudGlyphs(String text, float x, float y, float size, float[] out, int off);
 
     void drawTextBg(TextBox box, int col, float margin, float cr);
 
+    FrameStats frameStats();
+
+    void requestRedraw();
+    void renderMode(RenderMode mode);
+    RenderMode renderMode();
+
+    RenderStats stats();
+
+    long textCacheHits();
+    long textCacheMisses();
+
 
     void textAlign(AlignX alignX, AlignY alignY);
     AlignX alignX();
     AlignY alignY();
     void font(String font);
+    String font();
 
     void drawPointCircle(float x, float y, int col, float s);
     void drawPointCircle(Vector2fc pt, int col, float s);
@@ -84,6 +101,29 @@ public interface GeometryContext {
     void drawPointStar(float x, float y, int col, float s, float wdt);
     void drawPointStar(Vector2fc pt, int col, float s, float wdt);
 
+    void drawPointCircle(float[] xy, int count, int col, float s);
+    void drawPointCircle(FloatBuffer xy, int count, int col, float s);
+    void drawPointSquare(float[] xy, int count, int col, float s);
+    void drawPointSquare(FloatBuffer xy, int count, int col, float s);
+    void drawPointDiamond(float[] xy, int count, int col, float s);
+    void drawPointDiamond(FloatBuffer xy, int count, int col, float s);
+    void drawPointHexagon(float[] xy, int count, int col, float s);
+    void drawPointHexagon(FloatBuffer xy, int count, int col, float s);
+    void drawPointCircleOut(float[] xy, int count, int col, float s, float wdt);
+    void drawPointCircleOut(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointSquareOut(float[] xy, int count, int col, float s, float wdt);
+    void drawPointSquareOut(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointDiamondOut(float[] xy, int count, int col, float s, float wdt);
+    void drawPointDiamondOut(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointHexagonOut(float[] xy, int count, int col, float s, float wdt);
+    void drawPointHexagonOut(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointPlus(float[] xy, int count, int col, float s, float wdt);
+    void drawPointPlus(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointX(float[] xy, int count, int col, float s, float wdt);
+    void drawPointX(FloatBuffer xy, int count, int col, float s, float wdt);
+    void drawPointStar(float[] xy, int count, int col, float s, float wdt);
+    void drawPointStar(FloatBuffer xy, int count, int col, float s, float wdt);
+
     void drawSegment(float x1, float y1, float x2, float y2, int col, float wdt);
     void drawSegment(Vector2fc p1, Vector2fc p2, int col, float wdt);
     void drawRay(float x1, float y1, float x2, float y2, int col, float wdt);
@@ -91,6 +131,13 @@ public interface GeometryContext {
     void drawLine(float x1, float y1, float x2, float y2, int col, float wdt);
     void drawLine(Vector2fc p1, Vector2fc p2, int col, float wdt);
 
+    void drawSegments(float[] xy, int count, int col, float wdt);
+    void drawSegments(FloatBuffer xy, int count, int col, float wdt);
+    void drawPolyline(float[] xy, int count, int col, float wdt);
+    void drawPolyline(FloatBuffer xy, int count, int col, float wdt);
+    void drawSegmentsHud(float[] xy, int count, int col, float wdt);
+    boolean drawGridLayer(Grid grid);
+
     void drawNormal(float x, float y, float nx, float ny, float l, int col, float wdt);
     void drawNormal(Vector2fc src, Vector2fc norm, float l, int col, float wdt);
 
@@ -101,6 +148,8 @@ public interface GeometryContext {
     void drawLineCross(float x, float y, float nx, float ny, float s, int col, float wdt);
     void drawLineCross(Vector2fc src, Vector2fc dir, float s, int col, float wdt);
 
+    void drawList(DisplayList list);
+
     void begin();
     void close();
     void moveTo(float x, float y);
@@ -212,6 +261,10 @@ public interface GeometryContext {
     Vector2f posToScreen(Vector2fc vec, Vector2f out);
     Vector2f posToWorld(float x, float y, Vector2f out);
     Vector2f posToWorld(Vector2fc vec, Vector2f out);
+    void posToScreen(float[] in, int inOff, float[] out, int outOff, int count);
+    void posToScreen(FloatBuffer in, FloatBuffer out, int count);
+    void posToWorld(float[] in, int inOff, float[] out, int outOff, int count);
+    void posToWorld(FloatBuffer in, FloatBuffer out, int count);
     float posXToScreen(float x);
     float posYToScreen(float y);
     float posXToWorld(float x);
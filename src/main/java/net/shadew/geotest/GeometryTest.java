@@ -19,7 +19,11 @@ package net.shadew.geotest;
 
 import org.joml.Vector4f;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.nanovg.NanoVG.*;
@@ -36,14 +40,25 @@ public abstract class GeometryTest {
     private static final Input TRANSLATE_UP = new Input(GLFW_MOD_CONTROL, GLFW_KEY_UP, true);
     private static final Input TRANSLATE_DOWN = new Input(GLFW_MOD_CONTROL, GLFW_KEY_DOWN, true);
     private static final Input OPEN_CLI = new Input(0, GLFW_KEY_T, false);
+    private static final Input TOGGLE_PROFILER = new Input(0, GLFW_KEY_F3, false);
+    private static final Input EXPORT_SVG = new Input(0, GLFW_KEY_F12, false);
+    private static final Input SCREENSHOT = new Input(0, GLFW_KEY_F2, false);
+    private static final Input TOGGLE_CAPTURE = new Input(GLFW_MOD_CONTROL, GLFW_KEY_F2, false);
 
-    private final TestRuntime rt = new TestRuntime(this::init0, this::loop0, this::stop0);
+    private final TestRuntime rt = new TestRuntime(this::init0, this::loop0, this::stop0, this::needsRedraw);
     private final Space space = new Space();
     private final Vector4f bg = new Vector4f();
     private final DragAndDrop dnd = new DragAndDrop();
     private CommandLine cli;
 
     private NvgContext ctx;
+    private ProfilerHud profilerHud;
+    private FrameCapture capture;
+    private FixedStepClock offlineClock;
+    private long offlineFrames;
+    private long offlineStart;
+    private boolean showProfiler;
+    private int drawnSpaceVersion = -1;
 
     private TestScene scene;
 
@@ -51,6 +66,94 @@ public abstract class GeometryTest {
 
     protected abstract void init();
 
+    protected void pacing(FramePacing pacing) {
+        rt.pacing(pacing);
+    }
+
+    protected void pacing(double targetFps) {
+        rt.targetFps(targetFps);
+        rt.pacing(FramePacing.LIMITED);
+    }
+
+    protected void printFrameStats(boolean print) {
+        rt.printFrameStats(print);
+    }
+
+    public FrameStats frameStats() {
+        return rt.frameStats();
+    }
+
+    protected void showProfiler(boolean show) {
+        showProfiler = show;
+    }
+
+    /**
+     * Writes the current frame of the scene to the given file as SVG. The HUD and the command line are not included.
+     */
+    public void exportSvg(Path file) {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            SvgContext svg = new SvgContext(space, rt.frameStats(), out, 2);
+            svg.update(rt.mouseX(), rt.mouseY());
+            svg.beginDocument(ctx.bg());
+            if (scene != null)
+                scene.draw(svg);
+            svg.endDocument();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to export SVG to " + file, e);
+        }
+    }
+
+    /**
+     * Writes the next frame to the given file as PNG, including the HUD and the command line.
+     */
+    public void screenshot(Path file) {
+        capture.screenshot(file);
+        ctx.requestRedraw();
+    }
+
+    /**
+     * Writes every frame to a numbered PNG in the given directory, until {@link #stopCapture()} is called. While
+     * capturing, frames are drawn continuously.
+     */
+    public void startCapture(Path dir) {
+        capture.startSequence(dir);
+    }
+
+    public void stopCapture() {
+        capture.stopSequence();
+    }
+
+    /**
+     * Renders the scene offline: time advances by exactly one frame at the given frame rate per frame drawn, and
+     * frames are drawn as fast as possible and written to numbered PNGs in the given directory. The test closes when
+     * the given duration is rendered. Call this from {@link #init()}.
+     */
+    protected void renderOffline(Path dir, double fps, double seconds) {
+        offlineClock = new FixedStepClock(fps);
+        offlineFrames = Math.max(1, Math.round(fps * seconds));
+        offlineStart = System.nanoTime();
+        FrameClock.use(offlineClock);
+        ctx.resetTime();
+
+        rt.offline(true);
+        startCapture(dir);
+    }
+
+    private void stepOffline() {
+        offlineClock.step();
+        if (offlineClock.frame() < offlineFrames)
+            return;
+
+        stopCapture();
+        rt.offline(false);
+        FrameClock.use(null);
+        offlineClock = null;
+
+        double secs = (System.nanoTime() - offlineStart) / 1e9;
+        System.out.printf("Rendered %d frames in %.2f s%n", offlineFrames, secs);
+        glfwSetWindowShouldClose(rt.window(), true);
+    }
+
     protected CommandHandler commandHandler() {
         if (this instanceof CommandHandler handler)
             return handler;
@@ -58,7 +161,7 @@ public abstract class GeometryTest {
     }
 
     private void init0() {
-        ctx = new NvgContext(rt.window(), rt.nvg(), space, () -> !cli.focused());
+        ctx = new NvgContext(rt.window(), rt.nvg(), space, rt.frameStats(), () -> !cli.focused());
 
         space.screenSize(rt.windowW(), rt.windowH());
         ctx.update(rt.mouseX(), rt.mouseY());
@@ -66,6 +169,9 @@ public abstract class GeometryTest {
         cli = new CommandLine(ctx, rt.window(), cursorManager);
         cli.handler(commandHandler());
 
+        profilerHud = new ProfilerHud(rt.profiler(), rt.frameStats());
+        capture = new FrameCapture(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
         cursorManager.init();
 
         init();
@@ -74,6 +180,7 @@ public abstract class GeometryTest {
             this.scene.init(ctx);
 
         glfwSetMouseButtonCallback(rt.window(), (window, button, action, mods) -> {
+            ctx.requestRedraw();
             boolean press = action == GLFW_PRESS;
             if (cli.focused()) {
                 if (press)
@@ -99,16 +206,19 @@ public abstract class GeometryTest {
         });
 
         glfwSetScrollCallback(rt.window(), (window, xoffset, yoffset) -> {
+            ctx.requestRedraw();
             zoom((float) yoffset * 0.1f);
         });
 
         glfwSetCursorPosCallback(rt.window(), (window, xpos, ypos) -> {
+            ctx.requestRedraw();
             if (cli.focused())
                 cli.mouseMove();
             ctx.mouseMove();
         });
 
         glfwSetKeyCallback(rt.window(), (window, key, scancode, action, mods) -> {
+            ctx.requestRedraw();
             boolean press = action == GLFW_PRESS || action == GLFW_REPEAT;
             if (cli.focused()) {
                 if (press)
@@ -154,6 +264,40 @@ public abstract class GeometryTest {
                     cli.focus();
                 return;
             }
+            if (TOGGLE_PROFILER.matches(key, mods)) {
+                if (action == GLFW_PRESS)
+                    showProfiler = !showProfiler;
+                return;
+            }
+            if (TOGGLE_CAPTURE.matches(key, mods)) {
+                if (action == GLFW_PRESS) {
+                    if (capture.capturingSequence()) {
+                        stopCapture();
+                        System.out.println("Stopped capture");
+                    } else {
+                        Path dir = Path.of("capture-" + System.currentTimeMillis());
+                        startCapture(dir);
+                        System.out.println("Capturing frames to " + dir.toAbsolutePath());
+                    }
+                }
+                return;
+            }
+            if (SCREENSHOT.matches(key, mods)) {
+                if (action == GLFW_PRESS) {
+                    Path file = Path.of("screenshot-" + System.currentTimeMillis() + ".png");
+                    screenshot(file);
+                    System.out.println("Saving screenshot to " + file.toAbsolutePath());
+                }
+                return;
+            }
+            if (EXPORT_SVG.matches(key, mods)) {
+                if (action == GLFW_PRESS) {
+                    Path file = Path.of("frame-" + System.currentTimeMillis() + ".svg");
+                    exportSvg(file);
+                    System.out.println("Exported frame to " + file.toAbsolutePath());
+                }
+                return;
+            }
 
             if (press)
                 ctx.keyDown(key, mods, action == GLFW_REPEAT);
@@ -162,6 +306,7 @@ public abstract class GeometryTest {
         });
 
         glfwSetCharCallback(rt.window(), (window, codepoint) -> {
+            ctx.requestRedraw();
             if (cli.focused()) {
                 cli.charInput(codepoint);
             }
@@ -169,6 +314,9 @@ public abstract class GeometryTest {
     }
 
     private void loop0() {
+        FrameProfiler profiler = rt.profiler();
+
+        profiler.begin(FrameProfiler.INPUT);
         dnd.drag();
         if (!cli.focused())
             glfwSetCursor(rt.window(), NULL);
@@ -187,9 +335,11 @@ public abstract class GeometryTest {
                 space.pan(0, +0.1f / space.scale());
             }
         }
+        profiler.end(FrameProfiler.INPUT);
 
         space.screenSize(rt.windowW(), rt.windowH());
         ctx.update(rt.mouseX(), rt.mouseY());
+        drawnSpaceVersion = space.version();
 
         NvgContext.argb(ctx.bg(), bg);
 
@@ -198,13 +348,48 @@ public abstract class GeometryTest {
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
 
         nvgBeginFrame(ctx.nvg(), rt.windowW(), rt.windowH(), rt.pixelRatio());
+        ctx.beginFrame();
 
+        profiler.begin(FrameProfiler.SCENE);
+        ctx.animations().update();
         if (this.scene != null)
             this.scene.draw(ctx);
+        profiler.end(FrameProfiler.SCENE);
 
+        profiler.begin(FrameProfiler.CLI);
         cli.draw();
+        profiler.end(FrameProfiler.CLI);
+
+        if (showProfiler)
+            profilerHud.draw(ctx);
 
+        profiler.begin(FrameProfiler.END_FRAME);
         nvgEndFrame(ctx.nvg());
+        capture.endFrame(rt.windowW(), rt.windowH());
+        profiler.end(FrameProfiler.END_FRAME);
+
+        if (offlineClock != null)
+            stepOffline();
+    }
+
+    private boolean needsRedraw() {
+        // Always take the request, so that requests made in continuous mode don't cause a frame after switching modes
+        boolean requested = ctx.takeRedraw();
+        if (ctx.renderMode() == RenderMode.CONTINUOUS)
+            return true;
+
+        if (requested || space.version() != drawnSpaceVersion || dnd.dragging)
+            return true;
+
+        if (ctx.clock().anyActive() || ctx.animations().active() > 0 || cli.needsRedraw() || capture.capturingSequence())
+            return true;
+
+        // Held keys pan once per frame, key repeat is too slow to drive that
+        if (cli.focused())
+            return false;
+
+        long w = rt.window();
+        return TRANSLATE_LEFT.isHeld(w) || TRANSLATE_RIGHT.isHeld(w) || TRANSLATE_UP.isHeld(w) || TRANSLATE_DOWN.isHeld(w);
     }
 
     private void stop0() {
@@ -212,6 +397,12 @@ public abstract class GeometryTest {
             this.scene.stop(ctx);
 
         cursorManager.stop();
+
+        if (capture != null)
+            capture.dispose();
+
+        if (ctx != null)
+            ctx.dispose();
     }
 
     public void scene(TestScene scene) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.lwjgl.stb.STBTTFontinfo;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.lwjgl.stb.STBTruetype.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/*
+ * Glyph bitmaps rasterised with STB truetype, for contexts that draw text without NanoVG. Glyphs are cached per font,
+ * code point and size, with sizes rounded to a quarter pixel. Bitmaps are kept on-heap so that they can be read from
+ * any thread once they're made, but the cache itself must only be used from one thread.
+ */
+final class GlyphCache {
+    private final Map<String, Integer> fontIds = new HashMap<>();
+    private final List<FontData> fonts = new ArrayList<>();
+    private final Map<Long, Glyph> glyphs = new HashMap<>();
+
+    private final int[] x0 = new int[1], y0 = new int[1], x1 = new int[1], y1 = new int[1];
+    private ByteBuffer scratch = memAlloc(4096);
+
+    int font(String name) {
+        Integer id = fontIds.get(name);
+        if (id != null)
+            return id;
+
+        ByteBuffer ttf = Font.read(name);
+        STBTTFontinfo info = STBTTFontinfo.malloc();
+        if (!stbtt_InitFont(info, ttf)) {
+            info.free();
+            memFree(ttf);
+            throw new RuntimeException("Failed to load font: " + name);
+        }
+
+        id = fonts.size();
+        fonts.add(new FontData(ttf, info));
+        fontIds.put(name, id);
+        return id;
+    }
+
+    Glyph glyph(int font, int codepoint, float size) {
+        int quarters = Math.round(size * 4);
+        long key = (long) font << 56 | (long) quarters << 32 | codepoint & 0xFFFFFFFFL;
+
+        Glyph g = glyphs.get(key);
+        if (g == null) {
+            g = make(fonts.get(font).info, codepoint, quarters / 4f);
+            glyphs.put(key, g);
+        }
+        return g;
+    }
+
+    private Glyph make(STBTTFontinfo info, int codepoint, float size) {
+        float scale = stbtt_ScaleForMappingEmToPixels(info, size);
+        stbtt_GetCodepointBitmapBox(info, codepoint, scale, scale, x0, y0, x1, y1);
+
+        int w = x1[0] - x0[0], h = y1[0] - y0[0];
+        if (w <= 0 || h <= 0)
+            return new Glyph(new byte[0], 0, 0, 0, 0);
+
+        if (scratch.capacity() < w * h) {
+            memFree(scratch);
+            scratch = memAlloc(Math.max(w * h, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        stbtt_MakeCodepointBitmap(info, scratch, w, h, w, scale, scale, codepoint);
+
+        byte[] alpha = new byte[w * h];
+        scratch.get(0, alpha);
+        return new Glyph(alpha, w, h, x0[0], y0[0]);
+    }
+
+    void dispose() {
+        for (FontData f : fonts) {
+            f.info.free();
+            memFree(f.ttf);
+        }
+        fonts.clear();
+        fontIds.clear();
+        glyphs.clear();
+        memFree(scratch);
+    }
+
+    // Offsets are relative to the pen position on the baseline
+    record Glyph(byte[] alpha, int w, int h, int offX, int offY) {
+    }
+
+    // STB keeps pointers into the font data, so it must stay alive as long as the font info
+    private record FontData(ByteBuffer ttf, STBTTFontinfo info) {
+    }
+}
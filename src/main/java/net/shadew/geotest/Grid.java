@@ -17,7 +17,12 @@
 
 package net.shadew.geotest;
 
+import java.util.Arrays;
+
 public class Grid {
+    private static final int LEVELS = 3;
+    private static final int STATE_SIZE = 15;
+
     public int base = 5;
     public float cellW = 1;
     public float cellH = 1;
@@ -39,6 +44,19 @@ public class Grid {
     public int xAxisColor = 0xFFFFFFFF;
     public int yAxisColor = 0xFFFFFFFF;
 
+    public boolean shader = false;
+
+    // Line spacing and color of each detail level
+    final float[] levelScale = new float[LEVELS];
+    final int[] lineColor = new int[LEVELS];
+
+    // Screen space lines of each detail level, only rebuilt when the view or any of the above settings change
+    private final float[][] lines = new float[LEVELS][64];
+    private final int[] lineCount = new int[LEVELS];
+    private final float[] state = new float[STATE_SIZE];
+    private final float[] cachedState = new float[STATE_SIZE];
+    private boolean cached;
+
     public Grid base(int base) {
         this.base = base;
         return this;
@@ -78,17 +96,32 @@ public class Grid {
         return this;
     }
 
+    public Grid shader(boolean shader) {
+        this.shader = shader;
+        return this;
+    }
+
     public void draw(GeometryContext ctx) {
+        if (shader && ctx.drawGridLayer(this))
+            return;
+
         if (grid) {
-            float len = ctx.lenToWorld(ctx.unitLength());
-            float log = (float) (Math.log(len) / Math.log(base)) - (detail + 0.5f);
-
-            int n = Math.round(log);
-            float logdif = log + 0.5f - n;
-            float scale = (float) Math.pow(base, n);
-            draw(ctx, smallAlpha * (1 - logdif), scale, base);
-            draw(ctx, (1 - smallAlpha) * (1 - logdif) + smallAlpha, scale * base, base);
-            draw(ctx, 1, scale * base * base, -1);
+            // Always compare, so that the state is filled in on the first frame as well
+            boolean same = sameState(ctx);
+            if (!cached || !same) {
+                levels(ctx);
+                build(ctx, 0, base);
+                build(ctx, 1, base);
+                build(ctx, 2, -1);
+
+                System.arraycopy(state, 0, cachedState, 0, STATE_SIZE);
+                cached = true;
+            }
+
+            for (int i = 0; i < LEVELS; i++) {
+                if (lineCount[i] > 0)
+                    ctx.drawSegmentsHud(lines[i], lineCount[i], lineColor[i], lineWidth);
+            }
         }
 
         if (xAxis) {
@@ -100,12 +133,57 @@ public class Grid {
         }
     }
 
-    private void draw(GeometryContext ctx, float alpha, float scale, int skipEvery) {
+    private boolean sameState(GeometryContext ctx) {
+        // Ints and booleans are stored as floats, which represents them exactly
+        state[0] = ctx.scale();
+        state[1] = ctx.translateX();
+        state[2] = ctx.translateY();
+        state[3] = ctx.unitLength();
+        state[4] = ctx.windowW();
+        state[5] = ctx.windowH();
+        state[6] = base;
+        state[7] = cellW;
+        state[8] = cellH;
+        state[9] = lineWidth;
+        state[10] = color >>> 16;
+        state[11] = color & 0xFFFF;
+        state[12] = detail;
+        state[13] = smallAlpha;
+        state[14] = (vertical ? 1 : 0) | (horizontal ? 2 : 0) | (xAxis ? 4 : 0) | (yAxis ? 8 : 0);
+        return Arrays.equals(state, cachedState);
+    }
+
+    void levels(GeometryContext ctx) {
+        float len = ctx.lenToWorld(ctx.unitLength());
+        float log = (float) (Math.log(len) / Math.log(base)) - (detail + 0.5f);
+
+        int n = Math.round(log);
+        float logdif = log + 0.5f - n;
+        float scale = (float) Math.pow(base, n);
+
+        levelScale[0] = scale;
+        levelScale[1] = scale * base;
+        levelScale[2] = scale * base * base;
+        lineColor[0] = alpha(smallAlpha * (1 - logdif));
+        lineColor[1] = alpha((1 - smallAlpha) * (1 - logdif) + smallAlpha);
+        lineColor[2] = alpha(1);
+    }
+
+    private int alpha(float alpha) {
         int a = color >>> 24;
         a *= alpha;
-        int c = color & 0xFFFFFF | a << 24;
+        return color & 0xFFFFFF | a << 24;
+    }
+
+    private void build(GeometryContext ctx, int level, int skipEvery) {
+        float scale = levelScale[level];
+
+        lineCount[level] = 0;
+        if (lineColor[level] >>> 24 == 0)
+            return;
 
         float lw = ctx.lenToWorld(lineWidth);
+        float w = ctx.windowW(), h = ctx.windowH();
 
         if (vertical) {
             float s = scale * cellW;
@@ -124,7 +202,9 @@ public class Grid {
                     continue;
 
                 if (i >= l && i <= r) {
-                    ctx.drawLine(i * scale, 0, i * scale, 1, c, lineWidth);
+                    float x = ctx.posXToScreen(i * s);
+                    if (x >= -lineWidth && x <= w + lineWidth)
+                        addLine(level, x, -lineWidth, x, h + lineWidth);
                 }
             }
         }
@@ -146,9 +226,24 @@ public class Grid {
                     continue;
 
                 if (i >= l && i <= r) {
-                    ctx.drawLine(0, i * scale, 1, i * scale, c, lineWidth);
+                    float y = ctx.posYToScreen(i * s);
+                    if (y >= -lineWidth && y <= h + lineWidth)
+                        addLine(level, -lineWidth, y, w + lineWidth, y);
                 }
             }
         }
     }
+
+    private void addLine(int level, float x1, float y1, float x2, float y2) {
+        int n = lineCount[level] * 4;
+        float[] xy = lines[level];
+        if (n + 4 > xy.length)
+            lines[level] = xy = Arrays.copyOf(xy, xy.length * 2);
+
+        xy[n] = x1;
+        xy[n + 1] = y1;
+        xy[n + 2] = x2;
+        xy[n + 3] = y2;
+        lineCount[level]++;
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.lwjgl.opengl.GL32.*;
+
+/*
+ * Draws a Grid and its axes in a single full screen pass, using a fragment shader. The draw call is issued to OpenGL
+ * immediately, while NanoVG only renders at the end of the frame, so the grid always ends up beneath anything that is
+ * drawn through NanoVG in the same frame.
+ */
+class GridRenderer {
+    private static final int GRID = 1;
+    private static final int VERTICAL = 2;
+    private static final int HORIZONTAL = 4;
+    private static final int X_AXIS = 8;
+    private static final int Y_AXIS = 16;
+
+    private final int program;
+    private final int vao;
+
+    private final int uViewport;
+    private final int uUnit;
+    private final int uTranslate;
+    private final int uCell;
+    private final int uLevelScale;
+    private final int uLevelSkip;
+    private final int uLevelColor;
+    private final int uLineWidth;
+    private final int uAxisWidth;
+    private final int uXAxisColor;
+    private final int uYAxisColor;
+    private final int uFlags;
+
+    private final float[] levelColors = new float[12];
+    private final float[] color = new float[4];
+
+    GridRenderer() {
+        int vsh = shader(GL_VERTEX_SHADER, "grid.vsh");
+        int fsh = shader(GL_FRAGMENT_SHADER, "grid.fsh");
+
+        program = glCreateProgram();
+        glAttachShader(program, vsh);
+        glAttachShader(program, fsh);
+        glBindFragDataLocation(program, 0, "fragColor");
+        glLinkProgram(program);
+        glDeleteShader(vsh);
+        glDeleteShader(fsh);
+
+        if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
+            String log = glGetProgramInfoLog(program);
+            glDeleteProgram(program);
+            throw new RuntimeException("Failed to link grid shader: " + log);
+        }
+
+        uViewport = glGetUniformLocation(program, "viewport");
+        uUnit = glGetUniformLocation(program, "unit");
+        uTranslate = glGetUniformLocation(program, "translate");
+        uCell = glGetUniformLocation(program, "cell");
+        uLevelScale = glGetUniformLocation(program, "levelScale");
+        uLevelSkip = glGetUniformLocation(program, "levelSkip");
+        uLevelColor = glGetUniformLocation(program, "levelColor");
+        uLineWidth = glGetUniformLocation(program, "lineWidth");
+        uAxisWidth = glGetUniformLocation(program, "axisWidth");
+        uXAxisColor = glGetUniformLocation(program, "xAxisColor");
+        uYAxisColor = glGetUniformLocation(program, "yAxisColor");
+        uFlags = glGetUniformLocation(program, "flags");
+
+        // Core profile needs a vertex array bound to draw, even without any vertex attributes
+        vao = glGenVertexArrays();
+    }
+
+    void draw(Grid grid, Space space) {
+        int flags = 0;
+        if (grid.grid) flags |= GRID;
+        if (grid.vertical) flags |= VERTICAL;
+        if (grid.horizontal) flags |= HORIZONTAL;
+        if (grid.xAxis) flags |= X_AXIS;
+        if (grid.yAxis) flags |= Y_AXIS;
+
+        glUseProgram(program);
+        glUniform2f(uViewport, space.screenW(), space.screenH());
+        glUniform1f(uUnit, space.lenToScreen(1));
+        glUniform2f(uTranslate, space.x(), space.y());
+        glUniform2f(uCell, grid.cellW, grid.cellH);
+
+        glUniform3f(uLevelScale, grid.levelScale[0], grid.levelScale[1], grid.levelScale[2]);
+        glUniform3f(uLevelSkip, grid.base, grid.base, -1);
+        for (int i = 0; i < 3; i++) {
+            premultiplied(grid.lineColor[i]);
+            System.arraycopy(color, 0, levelColors, i * 4, 4);
+        }
+        glUniform4fv(uLevelColor, levelColors);
+        glUniform1f(uLineWidth, grid.lineWidth);
+
+        glUniform1f(uAxisWidth, grid.axisWidth);
+        glUniform4fv(uXAxisColor, premultiplied(grid.xAxisColor));
+        glUniform4fv(uYAxisColor, premultiplied(grid.yAxisColor));
+        glUniform1i(uFlags, flags);
+
+        glDisable(GL_DEPTH_TEST);
+        glDisable(GL_STENCIL_TEST);
+        glDisable(GL_SCISSOR_TEST);
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_ONE, GL_ONE_MINUS_SRC_ALPHA);
+
+        glBindVertexArray(vao);
+        glDrawArrays(GL_TRIANGLES, 0, 3);
+        glBindVertexArray(0);
+        glUseProgram(0);
+    }
+
+    void dispose() {
+        glDeleteProgram(program);
+        glDeleteVertexArrays(vao);
+    }
+
+    private float[] premultiplied(int argb) {
+        float a = (argb >>> 24 & 0xFF) / 255f;
+        color[0] = (argb >>> 16 & 0xFF) / 255f * a;
+        color[1] = (argb >>> 8 & 0xFF) / 255f * a;
+        color[2] = (argb & 0xFF) / 255f * a;
+        color[3] = a;
+        return color;
+    }
+
+    private static int shader(int type, String resource) {
+        InputStream in = GridRenderer.class.getClassLoader().getResourceAsStream("shaders/" + resource);
+        if (in == null)
+            throw new RuntimeException("No such shader found in resources: " + resource);
+
+        String source;
+        try (in) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load shader: " + resource, e);
+        }
+
+        int shader = glCreateShader(type);
+        glShaderSource(shader, source);
+        glCompileShader(shader);
+
+        if (glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+            String log = glGetShaderInfoLog(shader);
+            glDeleteShader(shader);
+            throw new RuntimeException("Failed to compile shader " + resource + ": " + log);
+        }
+        return shader;
+    }
+}
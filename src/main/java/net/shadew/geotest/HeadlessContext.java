@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+/*
+ * Base of the contexts that run without NanoVG: the recording, SVG and raster contexts. They lay out text with the fixed
+ * metrics of MonoText, keep no text cache, and see no input unless a subclass feeds it in.
+ */
+abstract class HeadlessContext extends BaseContext {
+    HeadlessContext(Space space, FrameStats frameStats) {
+        super(space, frameStats);
+    }
+
+    HeadlessContext(Space space, FrameStats frameStats, FrameClock clock) {
+        super(space, frameStats, clock);
+    }
+
+    // Packs a color given as floats, clamping each channel so that out of range values can't bleed into the others
+    static int argb(float r, float g, float b, float a) {
+        return channel(a) << 24 | channel(r) << 16 | channel(g) << 8 | channel(b);
+    }
+
+    private static int channel(float c) {
+        return Math.round(Math.max(0, Math.min(1, c)) * 255);
+    }
+
+    // Text
+
+    @Override
+    public long nvg() {
+        // There is no NanoVG context
+        return 0;
+    }
+
+    @Override
+    public void locateHudText(String text, float x, float y, float size, TextBox out) {
+        MonoText.line(text, x, y, size, alignX, alignY, out);
+        stats.measurements++;
+    }
+
+    @Override
+    public void locateHudTextBox(String text, float x, float y, float wrapWdt, float size, TextBox out) {
+        MonoText.box(text, x, y, wrapWdt, size, alignX, alignY, out);
+        stats.measurements++;
+    }
+
+    @Override
+    public void locateHudGlyphs(String text, float x, float y, float size, float[] out, int off) {
+        MonoText.glyphs(text, x, size, alignX, out, off);
+        stats.measurements++;
+    }
+
+    @Override
+    public long textCacheHits() {
+        return 0;
+    }
+
+    @Override
+    public long textCacheMisses() {
+        return 0;
+    }
+
+    // Input
+
+    @Override
+    public boolean keyDown(Input input) {
+        return false;
+    }
+
+    @Override
+    public boolean keyDown(int key) {
+        return false;
+    }
+
+    @Override
+    public boolean mouseDown(int btn) {
+        return false;
+    }
+}
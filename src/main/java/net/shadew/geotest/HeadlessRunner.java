@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/**
+ * Drives a {@link TestScene} for a number of frames on a {@link RecordingContext}, without a window. Time advances by
+ * a fixed step per frame, and input is fed in through a hook that runs before each frame.
+ * <p>
+ * Every runner has its own clock, which the context and its animation scheduler run on. Scenes that create their
+ * {@link Animation}s and {@link Timeline}s with {@link GeometryContext#clock()} are deterministic, and separate runners
+ * can run them in parallel. Animations created without a clock run on the global {@link FrameClock} instead.
+ */
+public class HeadlessRunner {
+    private final Space space = new Space();
+    private final FrameStats frameStats;
+    private final RecordingContext ctx;
+    private long frameMillis = 16;
+
+    public HeadlessRunner(int width, int height) {
+        this(width, height, 1024);
+    }
+
+    public HeadlessRunner(int width, int height, int statsCapacity) {
+        frameStats = new FrameStats(statsCapacity);
+        ctx = new RecordingContext(space, frameStats);
+        space.screenSize(width, height);
+        ctx.update(width / 2f, height / 2f);
+    }
+
+    public HeadlessRunner frameMillis(long millis) {
+        frameMillis = millis;
+        return this;
+    }
+
+    public RecordingContext context() {
+        return ctx;
+    }
+
+    public Space space() {
+        return space;
+    }
+
+    // Time spent in TestScene.draw per frame
+    public FrameStats frameStats() {
+        return frameStats;
+    }
+
+    public void run(TestScene scene, int frames) {
+        run(scene, frames, null, null);
+    }
+
+    public void run(TestScene scene, int frames, FrameHook before, FrameHook after) {
+        scene.init(ctx);
+        try {
+            for (int frame = 0; frame < frames; frame++) {
+                ctx.time(frame * frameMillis);
+                if (before != null)
+                    before.frame(frame, ctx);
+
+                ctx.update(ctx.mouseWindowX(), ctx.mouseWindowY());
+                ctx.beginFrame();
+
+                long start = System.nanoTime();
+                ctx.animations().update();
+                scene.draw(ctx);
+                frameStats.record(System.nanoTime() - start);
+
+                if (after != null)
+                    after.frame(frame, ctx);
+            }
+        } finally {
+            scene.stop(ctx);
+        }
+    }
+
+    public interface FrameHook {
+        void frame(int frame, RecordingContext ctx);
+    }
+}
@@ -169,6 +169,20 @@ public class Input {
 
     private static final int MOD_MASK = MOD_SHIFT | MOD_ALT | MOD_CONTROL | MOD_SUPER;
 
+    // Modifier keys, and the modifier bit each of them sets when held
+    private static final int[] MOD_KEYS = {
+        KEY_LEFT_SHIFT, KEY_RIGHT_SHIFT,
+        KEY_LEFT_ALT, KEY_RIGHT_ALT,
+        KEY_LEFT_CONTROL, KEY_RIGHT_CONTROL,
+        KEY_LEFT_SUPER, KEY_RIGHT_SUPER
+    };
+    private static final int[] MOD_BITS = {
+        MOD_SHIFT, MOD_SHIFT,
+        MOD_ALT, MOD_ALT,
+        MOD_CONTROL, MOD_CONTROL,
+        MOD_SUPER, MOD_SUPER
+    };
+
     private final int mods;
     private final int key;
     private final boolean ignoreMods;
@@ -187,17 +201,27 @@ public class Input {
 
     boolean isHeld(long window) {
         int mods = 0;
-        if (glfwGetKey(window, KEY_LEFT_SHIFT) == GLFW_PRESS) mods |= MOD_SHIFT;
-        if (glfwGetKey(window, KEY_RIGHT_SHIFT) == GLFW_PRESS) mods |= MOD_SHIFT;
-        if (glfwGetKey(window, KEY_LEFT_ALT) == GLFW_PRESS) mods |= MOD_ALT;
-        if (glfwGetKey(window, KEY_RIGHT_ALT) == GLFW_PRESS) mods |= MOD_ALT;
-        if (glfwGetKey(window, KEY_LEFT_CONTROL) == GLFW_PRESS) mods |= MOD_CONTROL;
-        if (glfwGetKey(window, KEY_RIGHT_CONTROL) == GLFW_PRESS) mods |= MOD_CONTROL;
-        if (glfwGetKey(window, KEY_LEFT_SUPER) == GLFW_PRESS) mods |= MOD_SUPER;
-        if (glfwGetKey(window, KEY_RIGHT_CONTROL) == GLFW_PRESS) mods |= MOD_SUPER;
+        for (int i = 0; i < MOD_KEYS.length; i++)
+            if (glfwGetKey(window, MOD_KEYS[i]) == GLFW_PRESS)
+                mods |= MOD_BITS[i];
+
+        // GLFW reports an error when asked for an unknown key
+        return isHeld(mods, key != KEY_UNKNOWN && glfwGetKey(window, key) == GLFW_PRESS);
+    }
+
+    // Same as above, but with the held keys given as an array indexed by key code
+    boolean isHeld(boolean[] keys) {
+        int mods = 0;
+        for (int i = 0; i < MOD_KEYS.length; i++)
+            if (keys[MOD_KEYS[i]])
+                mods |= MOD_BITS[i];
+
+        return isHeld(mods, key >= 0 && key < keys.length && keys[key]);
+    }
 
+    private boolean isHeld(int mods, boolean keyHeld) {
         if (ignoreMods)
-            return (mods & this.mods) == this.mods && glfwGetKey(window, key) == GLFW_PRESS;
-        return mods == this.mods && glfwGetKey(window, key) == GLFW_PRESS;
+            return (mods & this.mods) == this.mods && keyHeld;
+        return mods == this.mods && keyHeld;
     }
 }
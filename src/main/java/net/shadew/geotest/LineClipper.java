@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/*
+ * Liang-Barsky clipping of lines, rays and segments against an axis aligned box, with the bottom at the lowest y. The
+ * line through (x1, y1) and (x2, y2) is parameterized as p1 + u * (p2 - p1), and the visible range of u is written to
+ * the given ScreenRaycast. Keeps no state, so it can be used from any thread.
+ */
+final class LineClipper {
+    private LineClipper() {
+    }
+
+    static boolean clipLine(float x1, float y1, float x2, float y2, float l, float b, float r, float t, ScreenRaycast out) {
+        return clip(x1, y1, x2, y2, l, b, r, t, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, out);
+    }
+
+    static boolean clipRay(float x1, float y1, float x2, float y2, float l, float b, float r, float t, ScreenRaycast out) {
+        return clip(x1, y1, x2, y2, l, b, r, t, 0, Float.POSITIVE_INFINITY, out);
+    }
+
+    static boolean clipSegment(float x1, float y1, float x2, float y2, float l, float b, float r, float t, ScreenRaycast out) {
+        if (x1 >= l && x1 <= r && y1 >= b && y1 <= t && x2 >= l && x2 <= r && y2 >= b && y2 <= t) {
+            out.u1 = 0;
+            out.u2 = 1;
+            out.isc1.set(x1, y1);
+            out.isc2.set(x2, y2);
+            return true;
+        }
+        return clip(x1, y1, x2, y2, l, b, r, t, 0, 1, out);
+    }
+
+    /*
+     * Clips the part of the line between u = lo and u = hi. Fails when nothing is left, or when the result is unbounded
+     * (which only happens for a line of zero length).
+     */
+    static boolean clip(float x1, float y1, float x2, float y2, float l, float b, float r, float t, float lo, float hi, ScreenRaycast out) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+
+        if (dx == 0) {
+            if (x1 < l || x1 > r)
+                return false;
+        } else {
+            float inv = 1 / dx;
+            float ul = (l - x1) * inv;
+            float ur = (r - x1) * inv;
+            if (dx > 0) {
+                lo = Math.max(lo, ul);
+                hi = Math.min(hi, ur);
+            } else {
+                lo = Math.max(lo, ur);
+                hi = Math.min(hi, ul);
+            }
+        }
+
+        if (dy == 0) {
+            if (y1 < b || y1 > t)
+                return false;
+        } else {
+            float inv = 1 / dy;
+            float ub = (b - y1) * inv;
+            float ut = (t - y1) * inv;
+            if (dy > 0) {
+                lo = Math.max(lo, ub);
+                hi = Math.min(hi, ut);
+            } else {
+                lo = Math.max(lo, ut);
+                hi = Math.min(hi, ub);
+            }
+        }
+
+        if (!(lo <= hi) || lo == Float.NEGATIVE_INFINITY || hi == Float.POSITIVE_INFINITY)
+            return false;
+
+        out.u1 = lo;
+        out.u2 = hi;
+        out.isc1.set(x1 + lo * dx, y1 + lo * dy);
+        out.isc2.set(x1 + hi * dx, y1 + hi * dy);
+        return true;
+    }
+}
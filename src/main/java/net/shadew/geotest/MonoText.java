@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/*
+ * Text layout with fixed metrics that approximate the default monospaced font (JetBrains Mono), for contexts that do
+ * not have NanoVG's font renderer to measure text with. All sizes are in ems, boxes are greedily wrapped on spaces.
+ */
+final class MonoText {
+    static final float ADVANCE = 0.6f;
+    static final float ASCENT = 1.02f;
+    static final float DESCENT = 0.3f;
+    static final float LINE_HEIGHT = ASCENT + DESCENT;
+
+    private MonoText() {
+    }
+
+    static void line(String text, float x, float y, float size, AlignX alignX, AlignY alignY, TextBox out) {
+        float w = text.length() * ADVANCE * size;
+        float h = LINE_HEIGHT * size;
+        float bx = alignX(x, w, alignX);
+        float by = alignY(y, h, alignY);
+        out.lo.set(bx, by);
+        out.hi.set(bx + w, by + h);
+    }
+
+    static void box(String text, float x, float y, float wrapWdt, float size, AlignX alignX, AlignY alignY, TextBox out) {
+        int perRow = perRow(wrapWdt, size);
+        int rows = 0, widest = 0;
+        for (int start = 0, len = text.length(); start < len; start = nextRow(text, rowEnd(text, start, perRow))) {
+            widest = Math.max(widest, rowEnd(text, start, perRow) - start);
+            rows++;
+        }
+
+        float w = widest * ADVANCE * size;
+        float h = Math.max(rows, 1) * LINE_HEIGHT * size;
+        float bx = alignX(x, w, alignX);
+        float by = alignY(y, h, alignY);
+        out.lo.set(bx, by);
+        out.hi.set(bx + w, by + h);
+    }
+
+    static void glyphs(String text, float x, float size, AlignX alignX, float[] out, int off) {
+        int len = text.length();
+        float adv = ADVANCE * size;
+        float x0 = alignX(x, len * adv, alignX);
+
+        int glyph = 0;
+        for (int c = 0; c < len; c++) {
+            // The second half of a surrogate pair is part of the same glyph
+            if (c > 0 && Character.isLowSurrogate(text.charAt(c)) && Character.isHighSurrogate(text.charAt(c - 1)))
+                glyph--;
+            out[off + c] = x0 + glyph * adv;
+            glyph++;
+        }
+        out[off + len] = x0 + glyph * adv;
+    }
+
+    static int perRow(float wrapWdt, float size) {
+        return Math.max(1, (int) (wrapWdt / (ADVANCE * size)));
+    }
+
+    // The end of the row that starts at start, exclusive
+    static int rowEnd(String text, int start, int perRow) {
+        int len = text.length();
+        int end = Math.min(start + perRow, len);
+        if (end < len) {
+            int space = text.lastIndexOf(' ', end);
+            if (space > start)
+                end = space;
+        }
+        return end;
+    }
+
+    // The start of the row after the row that ends at end
+    static int nextRow(String text, int end) {
+        int len = text.length();
+        while (end < len && text.charAt(end) == ' ')
+            end++;
+        return end;
+    }
+
+    static float alignX(float x, float w, AlignX alignX) {
+        return switch (alignX) {
+            case LEFT -> x;
+            case CENTER -> x - w / 2;
+            case RIGHT -> x - w;
+        };
+    }
+
+    static float alignY(float y, float h, AlignY alignY) {
+        return switch (alignY) {
+            case TOP -> y;
+            case MIDDLE -> y - h / 2;
+            case BOTTOM -> y - h;
+        };
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.joml.Vector4f;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.lwjgl.nanovg.NanoVG.*;
+import static org.lwjgl.stb.STBImageWrite.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Drives a {@link TestScene} for a number of frames through the real NanoVG renderer, in an offscreen EGL context
+ * instead of a window, so that it runs on machines without a display server (e.g. on Mesa's software driver). Frame
+ * times cover drawing the scene until the driver has finished rendering it, and the last frame can be read back.
+ * <p>
+ * The runner must be used and closed on the thread that created it. The scene does not receive input.
+ */
+public class OffscreenRunner implements AutoCloseable {
+    private final Space space = new Space();
+    private final FrameStats frameStats;
+    private final EglRuntime rt;
+    private final NvgContext ctx;
+    private final Vector4f bg = new Vector4f();
+    private ByteBuffer pixels;
+    private double fps;
+
+    public OffscreenRunner(int width, int height) {
+        // Same multisampling as the window of TestRuntime
+        this(width, height, 16, 1024);
+    }
+
+    public OffscreenRunner(int width, int height, int samples, int statsCapacity) {
+        frameStats = new FrameStats(statsCapacity);
+        rt = new EglRuntime(width, height, samples);
+        try {
+            rt.init();
+            ctx = new NvgContext(NULL, rt.nvg(), space, frameStats, () -> false);
+        } catch (RuntimeException | Error e) {
+            // Don't leak the EGL context, surface and framebuffers when the renderer fails to set up
+            rt.dispose();
+            throw e;
+        }
+
+        space.screenSize(width, height);
+        ctx.update(width / 2f, height / 2f);
+    }
+
+    /**
+     * Runs scenes on a {@link FixedStepClock} at the given frame rate, so that animations advance by exactly one frame
+     * per frame drawn, regardless of how long frames take. Zero, the default, runs scenes on the current clock.
+     */
+    public OffscreenRunner fps(double fps) {
+        this.fps = fps;
+        return this;
+    }
+
+    public GeometryContext context() {
+        return ctx;
+    }
+
+    public Space space() {
+        return space;
+    }
+
+    // Time from drawing the scene until the frame is rendered, per frame
+    public FrameStats frameStats() {
+        return frameStats;
+    }
+
+    public int width() {
+        return rt.width();
+    }
+
+    public int height() {
+        return rt.height();
+    }
+
+    public void run(TestScene scene, int frames) {
+        run(scene, frames, null);
+    }
+
+    public void run(TestScene scene, int frames, FrameHook after) {
+        FrameClock prevClock = FrameClock.current();
+        FixedStepClock clock = fps > 0 ? new FixedStepClock(fps) : null;
+        if (clock != null) {
+            FrameClock.use(clock);
+            ctx.resetTime();
+        }
+
+        scene.init(ctx);
+        try {
+            for (int frame = 0; frame < frames; frame++) {
+                long start = System.nanoTime();
+                draw(scene);
+                rt.finish();
+                frameStats.record(System.nanoTime() - start);
+
+                if (after != null)
+                    after.frame(frame, this);
+                if (clock != null)
+                    clock.step();
+            }
+        } finally {
+            scene.stop(ctx);
+            FrameClock.use(prevClock);
+        }
+    }
+
+    private void draw(TestScene scene) {
+        int w = rt.width(), h = rt.height();
+        space.screenSize(w, h);
+        ctx.update(ctx.mouseWindowX(), ctx.mouseWindowY());
+
+        NvgContext.argb(ctx.bg(), bg);
+        rt.beginFrame(bg.x, bg.y, bg.z, bg.w);
+
+        nvgBeginFrame(ctx.nvg(), w, h, 1);
+        ctx.beginFrame();
+        ctx.animations().update();
+        scene.draw(ctx);
+        nvgEndFrame(ctx.nvg());
+    }
+
+    /**
+     * Reads back the last frame, as rows of RGBA pixels from the top left. The buffer is reused by later calls.
+     */
+    public ByteBuffer readPixels() {
+        if (pixels == null)
+            pixels = memAlloc(rt.width() * rt.height() * 4);
+        rt.read(pixels);
+        return pixels;
+    }
+
+    public void writePng(Path file) {
+        ByteBuffer px = readPixels();
+        if (!stbi_write_png(file.toString(), rt.width(), rt.height(), 4, px, rt.width() * 4))
+            throw new RuntimeException("Failed to write PNG to " + file);
+    }
+
+    @Override
+    public void close() {
+        ctx.dispose();
+        rt.dispose();
+        if (pixels != null)
+            memFree(pixels);
+        pixels = null;
+    }
+
+    public interface FrameHook {
+        void frame(int frame, OffscreenRunner runner);
+    }
+}
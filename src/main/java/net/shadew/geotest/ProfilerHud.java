@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.util.Arrays;
+
+/*
+ * Overlay that draws the frame times recorded by a FrameProfiler as a stacked graph, with a breakdown per phase. The
+ * graph is drawn from the ring buffers directly. The labels are only formatted a few times per second, so that the
+ * overlay barely allocates and doesn't show up much in the numbers it displays.
+ */
+final class ProfilerHud {
+    private static final int GRAPH_W = 240;
+    private static final float GRAPH_H = 80;
+    private static final float GRAPH_MILLIS = 33.3f;
+    private static final long REFRESH_NANOS = 250_000_000;
+
+    private static final int[] COLORS = {0xFF4FC3F7, 0xFF81C784, 0xFFFFB74D, 0xFFBA68C8, 0xFFE57373};
+    private static final int OTHER_COLOR = 0xFF9E9E9E;
+
+    private final FrameProfiler profiler;
+    private final FrameStats frameStats;
+    private final float[] stack = new float[GRAPH_W];
+    private final long[] phaseSums = new long[FrameProfiler.PHASES];
+    private final String[] labels = new String[FrameProfiler.PHASES + 2];
+    private long lastRefresh;
+
+    ProfilerHud(FrameProfiler profiler, FrameStats frameStats) {
+        this.profiler = profiler;
+        this.frameStats = frameStats;
+    }
+
+    void draw(GeometryContext ctx) {
+        long now = System.nanoTime();
+        if (labels[0] == null || now - lastRefresh >= REFRESH_NANOS) {
+            refresh();
+            lastRefresh = now;
+        }
+
+        float x = 10, y = 10;
+        float gx = x + 10, gy = y + 10;
+        float lineH = 16;
+        float h = GRAPH_H + 30 + lineH * labels.length;
+
+        ctx.begin();
+        ctx.roundRectHud(x, y, GRAPH_W + 20, h, 4);
+        ctx.fill(0xCC000000);
+
+        // Stacked bars, one path per phase, newest frame on the right
+        int n = Math.min(profiler.count(), GRAPH_W);
+        float pxPerNano = GRAPH_H / (GRAPH_MILLIS * 1e6f);
+        float bottom = gy + GRAPH_H;
+
+        for (int i = 0; i < n; i++)
+            stack[i] = 0;
+
+        for (int p = 0; p <= FrameProfiler.PHASES; p++) {
+            ctx.begin();
+            for (int i = 0; i < n; i++) {
+                long t = p == FrameProfiler.PHASES ? other(i) : profiler.phase(p, i);
+                float bh = Math.min(t * pxPerNano, GRAPH_H - stack[i]);
+                if (bh > 0) {
+                    ctx.rectHud(gx + GRAPH_W - 1 - i, bottom - stack[i] - bh, 1, bh);
+                    stack[i] += bh;
+                }
+            }
+            ctx.fill(p == FrameProfiler.PHASES ? OTHER_COLOR : COLORS[p]);
+        }
+
+        // 60 and 30 fps marks
+        ctx.begin();
+        float y60 = bottom - 16.67e6f * pxPerNano;
+        ctx.moveToHud(gx, y60);
+        ctx.lineToHud(gx + GRAPH_W, y60);
+        ctx.moveToHud(gx, gy);
+        ctx.lineToHud(gx + GRAPH_W, gy);
+        ctx.stroke(1, 0x66FFFFFF);
+
+        AlignX ax = ctx.alignX();
+        AlignY ay = ctx.alignY();
+        String font = ctx.font();
+        ctx.font(Font.REGULAR);
+        ctx.textAlign(AlignX.LEFT, AlignY.TOP);
+
+        float ty = bottom + 10;
+        for (int l = 0; l < labels.length; l++) {
+            int col = l == 0 ? 0xFFFFFFFF : l <= FrameProfiler.PHASES ? COLORS[l - 1] : OTHER_COLOR;
+            ctx.drawHudText(labels[l], gx, ty, col, 12);
+            ty += lineH;
+        }
+
+        ctx.textAlign(ax, ay);
+        ctx.font(font);
+    }
+
+    private long other(int i) {
+        long t = profiler.frame(i);
+        for (int p = 0; p < FrameProfiler.PHASES; p++)
+            t -= profiler.phase(p, i);
+        return Math.max(t, 0);
+    }
+
+    private void refresh() {
+        int n = Math.min(profiler.count(), GRAPH_W);
+        long frame = 0, other = 0, alloc = 0;
+        long[] phase = phaseSums;
+        Arrays.fill(phase, 0);
+
+        for (int i = 0; i < n; i++) {
+            frame += profiler.frame(i);
+            other += other(i);
+            alloc += profiler.allocated(i);
+            for (int p = 0; p < FrameProfiler.PHASES; p++)
+                phase[p] += profiler.phase(p, i);
+        }
+
+        double div = Math.max(n, 1);
+        double frameMs = frame / 1e6 / div;
+        String allocText = profiler.measuresAllocation()
+                           ? String.format("%.1f KB/frame", alloc / 1024d / div)
+                           : "n/a";
+
+        labels[0] = String.format(
+            "%.2f ms  %.1f fps  p99 %.2f ms  alloc %s",
+            frameMs, frameStats.fps(), frameStats.percentileMillis(99), allocText
+        );
+        for (int p = 0; p < FrameProfiler.PHASES; p++)
+            labels[p + 1] = label(FrameProfiler.name(p), phase[p] / 1e6 / div, frameMs);
+        labels[FrameProfiler.PHASES + 1] = label("Other", other / 1e6 / div, frameMs);
+    }
+
+    private static String label(String name, double ms, double frameMs) {
+        return String.format("%-12s %6.2f ms %5.1f%%", name, ms, frameMs == 0 ? 0 : ms / frameMs * 100);
+    }
+}
@@ -0,0 +1,638 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.lwjgl.stb.STBImageWrite.*;
+
+/**
+ * A GeometryContext that renders frames in software, into an off-heap frame buffer, for pixel-level tests on machines
+ * without a GPU. Paths are flattened and strokes are turned into polygons as they are drawn, and at the end of the
+ * frame everything is rasterised with anti-aliasing by a tile-based rasteriser that runs on a fork-join pool.
+ * <p>
+ * Text is drawn with glyphs rasterised by STB truetype, laid out with the same fixed metrics as the SVG export. The
+ * context has no input. Its time follows the global {@link FrameClock}, unless it is given a clock of its own, such as a
+ * {@link FixedStepClock} to render animated scenes deterministically.
+ */
+public class RasterContext extends HeadlessContext {
+    // Maximum distance in pixels between a curve and its flattened polyline
+    private static final float TOLERANCE = 0.25f;
+    private static final float PI = 3.14159265359f;
+
+    private final TileRasterizer raster;
+
+    private ByteBuffer pixels;
+    private IntBuffer pixelInts;
+    private int width, height;
+
+    // Flattened subpaths of the current path, in screen space
+    private float[] pts = new float[1024];
+    private int ptCount;
+    private int[] subStart = new int[16];
+    private boolean[] subClosed = new boolean[16];
+    private int subCount;
+    private boolean subOpen;
+    private float lastX, lastY;
+
+    private final float[] poly = new float[8];
+
+    private LineJoin join;
+    private LineEnd end;
+    private float miter;
+
+    private GlyphCache glyphs;
+
+    public RasterContext(Space space, FrameStats frameStats) {
+        this(space, frameStats, ForkJoinPool.commonPool());
+    }
+
+    public RasterContext(Space space, FrameStats frameStats, ForkJoinPool pool) {
+        this(space, frameStats, pool, FrameClock.GLOBAL);
+    }
+
+    public RasterContext(Space space, FrameStats frameStats, ForkJoinPool pool, FrameClock clock) {
+        super(space, frameStats, clock);
+        this.raster = new TileRasterizer(pool);
+        resetLineStyle();
+    }
+
+    /**
+     * Draws one frame of the given scene and rasterises it into the frame buffer, which takes the screen size of the
+     * space. The scene must already be initialised.
+     */
+    public void render(TestScene scene) {
+        beginFrame();
+        scene.draw(this);
+        rasterize();
+    }
+
+    @Override
+    void beginFrame() {
+        super.beginFrame();
+        resetLineStyle();
+        raster.clear();
+    }
+
+    void rasterize() {
+        int w = Math.max(1, (int) Math.ceil(space.screenW()));
+        int h = Math.max(1, (int) Math.ceil(space.screenH()));
+        if (pixels == null || w != width || h != height) {
+            width = w;
+            height = h;
+            pixels = ByteBuffer.allocateDirect(w * h * 4);
+            pixelInts = pixels.duplicate().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+
+        raster.render(bg(), w, h, pixelInts);
+    }
+
+    private void resetLineStyle() {
+        join = LineJoin.MITER;
+        end = LineEnd.FLAT;
+        miter = 10;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * The last rendered frame, as rows of RGBA pixels from the top left, or null if nothing was rendered yet.
+     */
+    public ByteBuffer pixels() {
+        return pixels == null ? null : pixels.duplicate();
+    }
+
+    /**
+     * The ARGB colour of a pixel in the last rendered frame.
+     */
+    public int pixel(int x, int y) {
+        if (pixels == null)
+            throw new IllegalStateException("Nothing was rendered yet");
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            throw new IndexOutOfBoundsException("Pixel " + x + ", " + y + " is outside the frame");
+
+        int c = pixelInts.get(y * width + x);
+        return c & 0xFF00FF00 | c >>> 16 & 0xFF | (c & 0xFF) << 16;
+    }
+
+    public void writePng(Path file) {
+        if (pixels == null)
+            throw new IllegalStateException("Nothing was rendered yet");
+        if (!stbi_write_png(file.toString(), width, height, 4, pixels, width * 4))
+            throw new RuntimeException("Failed to write PNG to " + file);
+    }
+
+    public void dispose() {
+        if (glyphs != null)
+            glyphs.dispose();
+        glyphs = null;
+    }
+
+    // Paths
+
+    @Override
+    void pathBegin() {
+        ptCount = 0;
+        subCount = 0;
+        subOpen = false;
+    }
+
+    @Override
+    void pathClose() {
+        if (subOpen) {
+            subClosed[subCount - 1] = true;
+            subOpen = false;
+        }
+    }
+
+    @Override
+    void pathMoveTo(float x, float y) {
+        if (subCount == subStart.length) {
+            subStart = Arrays.copyOf(subStart, subCount * 2);
+            subClosed = Arrays.copyOf(subClosed, subCount * 2);
+        }
+        subStart[subCount] = ptCount;
+        subClosed[subCount] = false;
+        subCount++;
+        subOpen = true;
+        point(x, y);
+    }
+
+    @Override
+    void pathLineTo(float x, float y) {
+        if (!subOpen)
+            pathMoveTo(lastX, lastY);
+
+        // Skip points that are on top of the previous one, they'd have no direction
+        int i = ptCount * 2;
+        if (ptCount > subStart[subCount - 1] && Math.abs(pts[i - 2] - x) < 0.01f && Math.abs(pts[i - 1] - y) < 0.01f)
+            return;
+        point(x, y);
+    }
+
+    private void point(float x, float y) {
+        if (ptCount * 2 + 2 > pts.length)
+            pts = Arrays.copyOf(pts, pts.length * 2);
+        pts[ptCount * 2] = x;
+        pts[ptCount * 2 + 1] = y;
+        ptCount++;
+        lastX = x;
+        lastY = y;
+    }
+
+    @Override
+    void pathQuadTo(float cx, float cy, float x, float y) {
+        float x0 = lastX, y0 = lastY;
+        float ddx = x0 - 2 * cx + x, ddy = y0 - 2 * cy + y;
+        int n = segments((float) Math.sqrt(ddx * ddx + ddy * ddy) / 4);
+
+        for (int i = 1; i <= n; i++) {
+            float t = i / (float) n, u = 1 - t;
+            pathLineTo(
+                u * u * x0 + 2 * u * t * cx + t * t * x,
+                u * u * y0 + 2 * u * t * cy + t * t * y
+            );
+        }
+    }
+
+    @Override
+    void pathCubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        float x0 = lastX, y0 = lastY;
+        float ddx = Math.max(Math.abs(x0 - 2 * c1x + c2x), Math.abs(c1x - 2 * c2x + x));
+        float ddy = Math.max(Math.abs(y0 - 2 * c1y + c2y), Math.abs(c1y - 2 * c2y + y));
+        int n = segments((float) Math.sqrt(ddx * ddx + ddy * ddy) * 3 / 4);
+
+        for (int i = 1; i <= n; i++) {
+            float t = i / (float) n, u = 1 - t;
+            float a = u * u * u, b = 3 * u * u * t, c = 3 * u * t * t, d = t * t * t;
+            pathLineTo(
+                a * x0 + b * c1x + c * c2x + d * x,
+                a * y0 + b * c1y + c * c2y + d * y
+            );
+        }
+    }
+
+    // Number of line segments a curve needs, given how far the curve deviates from its chord
+    private static int segments(float deviation) {
+        return Math.max(1, Math.min(256, (int) Math.ceil(Math.sqrt(deviation / TOLERANCE))));
+    }
+
+    // Number of line segments an arc needs
+    private static int arcSegments(float r, float da) {
+        if (r <= TOLERANCE)
+            return 1;
+        float step = 2 * (float) Math.acos(1 - TOLERANCE / r);
+        return Math.max(1, Math.min(1024, (int) Math.ceil(Math.abs(da) / step)));
+    }
+
+    @Override
+    void pathArcTo(float x, float y, float x2, float y2, float r) {
+        // Same construction as nvgArcTo
+        if (ptCount == 0)
+            return;
+
+        float dx0 = lastX - x, dy0 = lastY - y;
+        float dx1 = x2 - x, dy1 = y2 - y;
+        float l0 = (float) Math.sqrt(dx0 * dx0 + dy0 * dy0);
+        float l1 = (float) Math.sqrt(dx1 * dx1 + dy1 * dy1);
+        if (l0 < 1e-4f || l1 < 1e-4f || r < 1e-4f) {
+            pathLineTo(x, y);
+            return;
+        }
+
+        dx0 /= l0;
+        dy0 /= l0;
+        dx1 /= l1;
+        dy1 /= l1;
+        float a = (float) Math.acos(Math.max(-1, Math.min(1, dx0 * dx1 + dy0 * dy1)));
+        float d = r / (float) Math.tan(a / 2);
+        if (d > 10000) {
+            pathLineTo(x, y);
+            return;
+        }
+
+        if (dx1 * dy0 - dx0 * dy1 > 0) {
+            float cx = x + dx0 * d + dy0 * r, cy = y + dy0 * d - dx0 * r;
+            arc(cx, cy, r, (float) Math.atan2(dx0, -dy0), (float) Math.atan2(-dx1, dy1), true);
+        } else {
+            float cx = x + dx0 * d - dy0 * r, cy = y + dy0 * d + dx0 * r;
+            arc(cx, cy, r, (float) Math.atan2(-dx0, dy0), (float) Math.atan2(dx1, -dy1), false);
+        }
+    }
+
+    @Override
+    void pathArc(float cx, float cy, float r, float from, float to) {
+        arc(cx, cy, r, from, to, false);
+    }
+
+    // Same semantics as nvgArc, connects to the current path if there is one
+    private void arc(float cx, float cy, float r, float from, float to, boolean cw) {
+        float da = to - from;
+        if (cw) {
+            if (Math.abs(da) >= 2 * PI)
+                da = 2 * PI;
+            else
+                while (da < 0) da += 2 * PI;
+        } else {
+            if (Math.abs(da) >= 2 * PI)
+                da = -2 * PI;
+            else
+                while (da > 0) da -= 2 * PI;
+        }
+
+        int n = arcSegments(r, da);
+        for (int i = 0; i <= n; i++) {
+            float a = from + da * i / n;
+            float x = cx + r * (float) Math.cos(a), y = cy + r * (float) Math.sin(a);
+            if (i == 0 && ptCount == 0)
+                pathMoveTo(x, y);
+            else
+                pathLineTo(x, y);
+        }
+    }
+
+    @Override
+    void pathCircle(float cx, float cy, float r) {
+        pathEllipse(cx, cy, r, r);
+    }
+
+    @Override
+    void pathEllipse(float cx, float cy, float rx, float ry) {
+        // Same winding as nvgEllipse
+        int n = arcSegments(Math.max(rx, ry), 2 * PI);
+        pathMoveTo(cx - rx, cy);
+        for (int i = 1; i < n; i++) {
+            float a = PI - 2 * PI * i / n;
+            pathLineTo(cx + rx * (float) Math.cos(a), cy + ry * (float) Math.sin(a));
+        }
+        pathClose();
+    }
+
+    @Override
+    void pathRect(float x, float y, float w, float h) {
+        pathMoveTo(x, y);
+        pathLineTo(x, y + h);
+        pathLineTo(x + w, y + h);
+        pathLineTo(x + w, y);
+        pathClose();
+    }
+
+    @Override
+    void pathRoundRect(float x, float y, float w, float h, float cr) {
+        if (w < 0) {
+            x += w;
+            w = -w;
+        }
+        if (h < 0) {
+            y += h;
+            h = -h;
+        }
+
+        float r = Math.min(cr, Math.min(w, h) / 2);
+        if (r < 0.1f) {
+            pathRect(x, y, w, h);
+            return;
+        }
+
+        pathMoveTo(x, y + r);
+        corner(x + r, y + h - r, r, PI);
+        corner(x + w - r, y + h - r, r, PI / 2);
+        corner(x + w - r, y + r, r, 0);
+        corner(x + r, y + r, r, -PI / 2);
+        pathClose();
+    }
+
+    // A quarter circle, going clockwise from the given angle
+    private void corner(float cx, float cy, float r, float from) {
+        int n = arcSegments(r, PI / 2);
+        for (int i = 0; i <= n; i++) {
+            float a = from - PI / 2 * i / n;
+            pathLineTo(cx + r * (float) Math.cos(a), cy + r * (float) Math.sin(a));
+        }
+    }
+
+    @Override
+    void pathFill(float r, float g, float b, float a) {
+        for (int s = 0; s < subCount; s++) {
+            int from = subStart[s], to = s + 1 < subCount ? subStart[s + 1] : ptCount;
+            if (to - from < 3)
+                continue;
+
+            // Fills always close their subpaths
+            for (int i = from; i < to; i++) {
+                int j = i + 1 < to ? i + 1 : from;
+                raster.edge(pts[i * 2], pts[i * 2 + 1], pts[j * 2], pts[j * 2 + 1]);
+            }
+        }
+        raster.fill(argb(r, g, b, a));
+    }
+
+    @Override
+    void pathStroke(float wdt, float r, float g, float b, float a) {
+        // Like NanoVG, strokes thinner than a pixel are drawn a pixel wide and fade out instead
+        if (wdt < 1) {
+            a *= Math.max(wdt, 0);
+            wdt = 1;
+        }
+        float hw = wdt / 2;
+
+        for (int s = 0; s < subCount; s++) {
+            int from = subStart[s], to = s + 1 < subCount ? subStart[s + 1] : ptCount;
+            boolean closed = subClosed[s];
+
+            // A closed subpath may end on its own start
+            if (closed && to - from > 1 && pts[from * 2] == pts[to * 2 - 2] && pts[from * 2 + 1] == pts[to * 2 - 1])
+                to--;
+
+            int n = to - from;
+            if (n == 1) {
+                dot(pts[from * 2], pts[from * 2 + 1], hw);
+                continue;
+            }
+            if (n < 2)
+                continue;
+            if (closed && n < 3)
+                closed = false;
+
+            int segs = closed ? n : n - 1;
+            for (int i = 0; i < segs; i++) {
+                int p0 = from + i, p1 = from + (i + 1) % n;
+                segment(pts[p0 * 2], pts[p0 * 2 + 1], pts[p1 * 2], pts[p1 * 2 + 1], hw,
+                    !closed && i == 0, !closed && i == segs - 1);
+            }
+
+            for (int i = closed ? 0 : 1, last = closed ? n : n - 1; i < last; i++) {
+                int p0 = from + (i + n - 1) % n, p1 = from + i, p2 = from + (i + 1) % n;
+                join(pts[p0 * 2], pts[p0 * 2 + 1], pts[p1 * 2], pts[p1 * 2 + 1], pts[p2 * 2], pts[p2 * 2 + 1], hw);
+            }
+        }
+        raster.fill(argb(r, g, b, a));
+    }
+
+    // One segment of a stroke, as a quad, with the caps if the segment is at the end of an open subpath
+    private void segment(float x0, float y0, float x1, float y1, float hw, boolean start, boolean finish) {
+        float dx = x1 - x0, dy = y1 - y0;
+        float len = (float) Math.sqrt(dx * dx + dy * dy);
+        dx /= len;
+        dy /= len;
+
+        if (end == LineEnd.SQUARE) {
+            if (start) {
+                x0 -= dx * hw;
+                y0 -= dy * hw;
+            }
+            if (finish) {
+                x1 += dx * hw;
+                y1 += dy * hw;
+            }
+        }
+
+        float nx = -dy * hw, ny = dx * hw;
+        poly[0] = x0 + nx;
+        poly[1] = y0 + ny;
+        poly[2] = x1 + nx;
+        poly[3] = y1 + ny;
+        poly[4] = x1 - nx;
+        poly[5] = y1 - ny;
+        poly[6] = x0 - nx;
+        poly[7] = y0 - ny;
+        polygon(4);
+
+        if (end == LineEnd.ROUND) {
+            if (start)
+                disc(x0, y0, hw);
+            if (finish)
+                disc(x1, y1, hw);
+        }
+    }
+
+    // A subpath of a single point only draws its caps
+    private void dot(float x, float y, float hw) {
+        if (end == LineEnd.ROUND) {
+            disc(x, y, hw);
+        } else if (end == LineEnd.SQUARE) {
+            poly[0] = x - hw;
+            poly[1] = y - hw;
+            poly[2] = x + hw;
+            poly[3] = y - hw;
+            poly[4] = x + hw;
+            poly[5] = y + hw;
+            poly[6] = x - hw;
+            poly[7] = y + hw;
+            polygon(4);
+        }
+    }
+
+    // Fills the gap on the outside of the corner at x1, y1
+    private void join(float x0, float y0, float x1, float y1, float x2, float y2, float hw) {
+        if (join == LineJoin.ROUND) {
+            disc(x1, y1, hw);
+            return;
+        }
+
+        float dx0 = x1 - x0, dy0 = y1 - y0, dx1 = x2 - x1, dy1 = y2 - y1;
+        float l0 = (float) Math.sqrt(dx0 * dx0 + dy0 * dy0), l1 = (float) Math.sqrt(dx1 * dx1 + dy1 * dy1);
+        dx0 /= l0;
+        dy0 /= l0;
+        dx1 /= l1;
+        dy1 /= l1;
+
+        float cross = dx0 * dy1 - dy0 * dx1;
+        if (Math.abs(cross) < 1e-4f)
+            return;
+
+        // The normals point to the inside of the turn when it turns positively, the gap is on the other side
+        float side = cross > 0 ? -hw : hw;
+        float n0x = -dy0 * side, n0y = dx0 * side;
+        float n1x = -dy1 * side, n1y = dx1 * side;
+
+        float dot = dx0 * dx1 + dy0 * dy1;
+        poly[0] = x1;
+        poly[1] = y1;
+        poly[2] = x1 + n0x;
+        poly[3] = y1 + n0y;
+
+        if (join == LineJoin.MITER && 2 / (1 + dot) <= miter * miter) {
+            poly[4] = x1 + (n0x + n1x) / (1 + dot);
+            poly[5] = y1 + (n0y + n1y) / (1 + dot);
+            poly[6] = x1 + n1x;
+            poly[7] = y1 + n1y;
+            polygon(4);
+        } else {
+            poly[4] = x1 + n1x;
+            poly[5] = y1 + n1y;
+            polygon(3);
+        }
+    }
+
+    // Adds the polygon in poly, with the orientation that all stroke geometry has, so overlapping parts don't cancel
+    private void polygon(int n) {
+        float area = 0;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            area += poly[i * 2] * poly[j * 2 + 1] - poly[j * 2] * poly[i * 2 + 1];
+        }
+
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            if (area < 0)
+                raster.edge(poly[i * 2], poly[i * 2 + 1], poly[j * 2], poly[j * 2 + 1]);
+            else
+                raster.edge(poly[j * 2], poly[j * 2 + 1], poly[i * 2], poly[i * 2 + 1]);
+        }
+    }
+
+    private void disc(float cx, float cy, float r) {
+        // Going clockwise gives the same orientation as polygon()
+        int n = Math.max(arcSegments(r, 2 * PI), 8);
+        float px = cx + r, py = cy;
+        for (int i = 1; i <= n; i++) {
+            float a = -2 * PI * i / n;
+            float x = cx + r * (float) Math.cos(a), y = cy + r * (float) Math.sin(a);
+            raster.edge(px, py, x, y);
+            px = x;
+            py = y;
+        }
+    }
+
+    @Override
+    void applyLineJoin(LineJoin join) {
+        this.join = join;
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyLineEnd(LineEnd end) {
+        this.end = end;
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyMiterLimit(float lim) {
+        this.miter = lim;
+        stats.stateChanges++;
+    }
+
+    // Text
+
+    @Override
+    public void drawHudText(String text, float x, float y, int col, float size) {
+        MonoText.line(text, x, y, size, alignX, alignY, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, tbox.hi.x, tbox.hi.y, 0))
+            return;
+
+        drawRow(text, 0, text.length(), tbox.lo.x, tbox.lo.y + MonoText.ASCENT * size, col, size);
+        stats.texts++;
+    }
+
+    @Override
+    public void drawHudTextBox(String text, float x, float y, int col, float wrapWdt, float size) {
+        MonoText.box(text, x, y, wrapWdt, size, alignX, alignY, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, Math.max(tbox.hi.x, tbox.lo.x + wrapWdt), tbox.hi.y, 0))
+            return;
+
+        float bx = MonoText.alignX(x, wrapWdt, alignX);
+        int perRow = MonoText.perRow(wrapWdt, size);
+        float rowY = tbox.lo.y + MonoText.ASCENT * size;
+
+        for (int start = 0, len = text.length(); start < len; ) {
+            int end = MonoText.rowEnd(text, start, perRow);
+            float w = (end - start) * MonoText.ADVANCE * size;
+            float rx = switch (alignX) {
+                case LEFT -> bx;
+                case CENTER -> bx + wrapWdt / 2 - w / 2;
+                case RIGHT -> bx + wrapWdt - w;
+            };
+
+            drawRow(text, start, end, rx, rowY, col, size);
+            rowY += MonoText.LINE_HEIGHT * size;
+            start = MonoText.nextRow(text, end);
+        }
+        stats.texts++;
+    }
+
+    private void drawRow(String text, int from, int to, float x, float baseline, int col, float size) {
+        if (glyphs == null)
+            glyphs = new GlyphCache();
+
+        int fnt = glyphs.font(font);
+        float adv = MonoText.ADVANCE * size;
+        int by = Math.round(baseline);
+
+        for (int i = from; i < to; ) {
+            int cp = text.codePointAt(i);
+            if (!Character.isWhitespace(cp)) {
+                GlyphCache.Glyph g = glyphs.glyph(fnt, cp, size);
+                raster.glyph(g, Math.round(x) + g.offX(), by + g.offY(), col);
+            }
+            x += adv;
+            i += Character.charCount(cp);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.util.Arrays;
+
+/**
+ * A GeometryContext that needs no window or GL context. It runs the same transforms, culling and clipping as the
+ * on-screen context, and records the resulting screen space commands into flat primitive arrays, which are cleared at
+ * the start of every frame. Input is synthetic, and time only advances when the driver says so.
+ * <p>
+ * Text is laid out with fixed metrics that approximate the default monospaced font, so text bounds are close to, but
+ * not exactly, what NanoVG would measure.
+ */
+public class RecordingContext extends HeadlessContext {
+    public static final int BEGIN = 0;
+    public static final int CLOSE = 1;
+    public static final int MOVE_TO = 2;
+    public static final int LINE_TO = 3;
+    public static final int QUAD_TO = 4;
+    public static final int CUBIC_TO = 5;
+    public static final int ARC_TO = 6;
+    public static final int CIRCLE = 7;
+    public static final int ELLIPSE = 8;
+    public static final int RECT = 9;
+    public static final int ROUND_RECT = 10;
+    public static final int ARC = 11;
+    public static final int FILL = 12;
+    public static final int STROKE = 13;
+    public static final int TEXT = 14;
+    public static final int TEXT_BOX = 15;
+    public static final int LINE_JOIN = 16;
+    public static final int LINE_END = 17;
+    public static final int MITER_LIMIT = 18;
+
+    private byte[] ops = new byte[256];
+    private int[] floatStart = new int[256];
+    private int[] intStart = new int[256];
+    private float[] floats = new float[1024];
+    private int[] ints = new int[64];
+    private String[] strings = new String[16];
+    private int opCount, floatCount, intCount, stringCount;
+
+    private final boolean[] keys = new boolean[512];
+    private final boolean[] buttons = new boolean[8];
+    private final Clock clock;
+
+    RecordingContext(Space space, FrameStats frameStats) {
+        this(space, frameStats, new Clock());
+    }
+
+    private RecordingContext(Space space, FrameStats frameStats, Clock clock) {
+        super(space, frameStats, clock);
+        this.clock = clock;
+    }
+
+    @Override
+    void beginFrame() {
+        clear();
+        super.beginFrame();
+    }
+
+    // Recorded commands
+
+    public int size() {
+        return opCount;
+    }
+
+    public int command(int i) {
+        return ops[i];
+    }
+
+    // The arg-th float argument of the i-th command. Coordinates are in screen space, colors are in ints.
+    public float floatArg(int i, int arg) {
+        return floats[floatStart[i] + arg];
+    }
+
+    public int intArg(int i, int arg) {
+        return ints[intStart[i] + arg];
+    }
+
+    // The text of the i-th command, when it is a TEXT or TEXT_BOX command
+    public String text(int i) {
+        return strings[ints[intStart[i] + 1]];
+    }
+
+    public int count(int op) {
+        int n = 0;
+        for (int i = 0; i < opCount; i++)
+            if (ops[i] == op)
+                n++;
+        return n;
+    }
+
+    public void clear() {
+        Arrays.fill(strings, 0, stringCount, null);
+        opCount = 0;
+        floatCount = 0;
+        intCount = 0;
+        stringCount = 0;
+    }
+
+    private void op(int op) {
+        if (opCount == ops.length) {
+            ops = Arrays.copyOf(ops, opCount * 2);
+            floatStart = Arrays.copyOf(floatStart, opCount * 2);
+            intStart = Arrays.copyOf(intStart, opCount * 2);
+        }
+        ops[opCount] = (byte) op;
+        floatStart[opCount] = floatCount;
+        intStart[opCount] = intCount;
+        opCount++;
+    }
+
+    private void f(float a) {
+        if (floatCount == floats.length)
+            floats = Arrays.copyOf(floats, floatCount * 2);
+        floats[floatCount++] = a;
+    }
+
+    private void f(float a, float b) {
+        f(a);
+        f(b);
+    }
+
+    private void f(float a, float b, float c, float d) {
+        f(a);
+        f(b);
+        f(c);
+        f(d);
+    }
+
+    private void i(int a) {
+        if (intCount == ints.length)
+            ints = Arrays.copyOf(ints, intCount * 2);
+        ints[intCount++] = a;
+    }
+
+    private int s(String s) {
+        if (stringCount == strings.length)
+            strings = Arrays.copyOf(strings, stringCount * 2);
+        strings[stringCount] = s;
+        return stringCount++;
+    }
+
+    @Override
+    void pathBegin() {
+        op(BEGIN);
+    }
+
+    @Override
+    void pathClose() {
+        op(CLOSE);
+    }
+
+    @Override
+    void pathMoveTo(float x, float y) {
+        op(MOVE_TO);
+        f(x, y);
+    }
+
+    @Override
+    void pathLineTo(float x, float y) {
+        op(LINE_TO);
+        f(x, y);
+    }
+
+    @Override
+    void pathQuadTo(float cx, float cy, float x, float y) {
+        op(QUAD_TO);
+        f(cx, cy, x, y);
+    }
+
+    @Override
+    void pathCubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        op(CUBIC_TO);
+        f(c1x, c1y, c2x, c2y);
+        f(x, y);
+    }
+
+    @Override
+    void pathArcTo(float x, float y, float x2, float y2, float r) {
+        op(ARC_TO);
+        f(x, y, x2, y2);
+        f(r);
+    }
+
+    @Override
+    void pathCircle(float cx, float cy, float r) {
+        op(CIRCLE);
+        f(cx, cy);
+        f(r);
+    }
+
+    @Override
+    void pathEllipse(float cx, float cy, float rx, float ry) {
+        op(ELLIPSE);
+        f(cx, cy, rx, ry);
+    }
+
+    @Override
+    void pathRect(float x, float y, float w, float h) {
+        op(RECT);
+        f(x, y, w, h);
+    }
+
+    @Override
+    void pathRoundRect(float x, float y, float w, float h, float cr) {
+        op(ROUND_RECT);
+        f(x, y, w, h);
+        f(cr);
+    }
+
+    @Override
+    void pathArc(float cx, float cy, float r, float from, float to) {
+        op(ARC);
+        f(cx, cy, r, from);
+        f(to);
+    }
+
+    @Override
+    void pathFill(float r, float g, float b, float a) {
+        op(FILL);
+        i(argb(r, g, b, a));
+    }
+
+    @Override
+    void pathStroke(float wdt, float r, float g, float b, float a) {
+        op(STROKE);
+        f(wdt);
+        i(argb(r, g, b, a));
+    }
+
+    @Override
+    void applyLineJoin(LineJoin join) {
+        op(LINE_JOIN);
+        i(join.ordinal());
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyLineEnd(LineEnd end) {
+        op(LINE_END);
+        i(end.ordinal());
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyMiterLimit(float lim) {
+        op(MITER_LIMIT);
+        f(lim);
+        stats.stateChanges++;
+    }
+
+    // Text
+
+    @Override
+    public void drawHudText(String text, float x, float y, int col, float size) {
+        locateHudText(text, x, y, size, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, tbox.hi.x, tbox.hi.y, 0))
+            return;
+
+        op(TEXT);
+        f(tbox.lo.x, tbox.lo.y);
+        f(size);
+        i(col);
+        i(s(text));
+        i(s(font));
+        stats.texts++;
+    }
+
+    @Override
+    public void drawHudTextBox(String text, float x, float y, int col, float wrapWdt, float size) {
+        locateHudTextBox(text, x, y, wrapWdt, size, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, Math.max(tbox.hi.x, tbox.lo.x + wrapWdt), tbox.hi.y, 0))
+            return;
+
+        op(TEXT_BOX);
+        f(tbox.lo.x, tbox.lo.y, size, wrapWdt);
+        i(col);
+        i(s(text));
+        i(s(font));
+        stats.texts++;
+    }
+
+    // Time
+
+    void time(long millis) {
+        clock.time = millis;
+    }
+
+    // Synthetic input, mouse coordinates are in screen space. Like GLFW, events with unknown keys or buttons are still
+    // delivered, but their state is not tracked.
+
+    public void pressKey(int key, int mods) {
+        boolean known = known(keys, key);
+        boolean repeat = known && keys[key];
+        if (known)
+            keys[key] = true;
+        keyDown(key, mods, repeat);
+    }
+
+    public void releaseKey(int key, int mods) {
+        if (known(keys, key))
+            keys[key] = false;
+        keyUp(key, mods);
+    }
+
+    public void pressMouse(int btn, int mods) {
+        if (known(buttons, btn))
+            buttons[btn] = true;
+        mouseDown(btn, mods);
+    }
+
+    public void releaseMouse(int btn, int mods) {
+        if (known(buttons, btn))
+            buttons[btn] = false;
+        mouseUp(btn, mods);
+    }
+
+    public void moveMouse(float x, float y) {
+        update(x, y);
+        mouseMove();
+    }
+
+    @Override
+    public boolean keyDown(Input input) {
+        return input.isHeld(keys);
+    }
+
+    @Override
+    public boolean keyDown(int key) {
+        return known(keys, key) && keys[key];
+    }
+
+    @Override
+    public boolean mouseDown(int btn) {
+        return known(buttons, btn) && buttons[btn];
+    }
+
+    private static boolean known(boolean[] state, int i) {
+        return i >= 0 && i < state.length;
+    }
+
+    // Synthetic time, set by the runner before each frame
+    private static final class Clock extends FrameClock {
+        long time;
+
+        @Override
+        public long millis() {
+            return time;
+        }
+    }
+}
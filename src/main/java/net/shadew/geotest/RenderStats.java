@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+/*
+ * Counters of the work a GeometryContext handed to NanoVG during the current frame. They are reset when a frame
+ * begins, so they can be checked at the end of a scene's draw call, e.g. to make sure a scene stays within a budget.
+ *
+ * Vertices are the points passed to NanoVG's path commands, before tessellation. Curves count their control points,
+ * and shapes count the points NanoVG expands them into.
+ */
+public final class RenderStats {
+    int paths;
+    int fills;
+    int strokes;
+    int texts;
+    int measurements;
+    int culled;
+    int submitted;
+    int stateChanges;
+    int vertices;
+
+    void reset() {
+        paths = 0;
+        fills = 0;
+        strokes = 0;
+        texts = 0;
+        measurements = 0;
+        culled = 0;
+        submitted = 0;
+        stateChanges = 0;
+        vertices = 0;
+    }
+
+    public int paths() {
+        return paths;
+    }
+
+    public int fills() {
+        return fills;
+    }
+
+    public int strokes() {
+        return strokes;
+    }
+
+    public int texts() {
+        return texts;
+    }
+
+    public int measurements() {
+        return measurements;
+    }
+
+    public int culled() {
+        return culled;
+    }
+
+    public int submitted() {
+        return submitted;
+    }
+
+    public int stateChanges() {
+        return stateChanges;
+    }
+
+    public int vertices() {
+        return vertices;
+    }
+
+    @Override
+    public String toString() {
+        return "paths=" + paths
+                   + ", fills=" + fills
+                   + ", strokes=" + strokes
+                   + ", texts=" + texts
+                   + ", measurements=" + measurements
+                   + ", culled=" + culled
+                   + ", submitted=" + submitted
+                   + ", stateChanges=" + stateChanges
+                   + ", vertices=" + vertices;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/*
+ * Vector API implementation of BulkTransform. Only loaded when the jdk.incubator.vector module is present. Every method
+ * returns the number of floats it has transformed, the caller transforms the remaining tail.
+ */
+final class SimdTransform {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private SimdTransform() {
+    }
+
+    // Vectors hold an even number of lanes, so alternating x and y constants line up with interleaved coordinates
+    private static FloatVector pair(float x, float y) {
+        float[] v = new float[LANES];
+        for (int i = 0; i < LANES; i += 2) {
+            v[i] = x;
+            v[i + 1] = y;
+        }
+        return FloatVector.fromArray(SPECIES, v, 0);
+    }
+
+    static int toScreen(float[] in, int inOff, float[] out, int outOff, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        int l = SPECIES.loopBound(count * 2);
+        if (l == 0)
+            return 0;
+
+        FloatVector t = pair(tx, ty), s = pair(sx, sy), c = pair(cx, cy);
+        for (int i = 0; i < l; i += LANES) {
+            FloatVector.fromArray(SPECIES, in, inOff + i)
+                       .add(t).mul(s).mul(u).add(c)
+                       .intoArray(out, outOff + i);
+        }
+        return l;
+    }
+
+    static int toWorld(float[] in, int inOff, float[] out, int outOff, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        int l = SPECIES.loopBound(count * 2);
+        if (l == 0)
+            return 0;
+
+        FloatVector t = pair(tx, ty), s = pair(sx, sy), c = pair(cx, cy);
+        for (int i = 0; i < l; i += LANES) {
+            FloatVector.fromArray(SPECIES, in, inOff + i)
+                       .sub(c).div(u).div(s).sub(t)
+                       .intoArray(out, outOff + i);
+        }
+        return l;
+    }
+
+    static int toScreen(FloatBuffer in, FloatBuffer out, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        if (!in.isDirect() || !out.isDirect())
+            return 0;
+
+        int l = SPECIES.loopBound(count * 2);
+        if (l == 0)
+            return 0;
+
+        // Float views of byte buffers take the order of the byte buffer, which is big endian unless it was changed
+        ByteBuffer ib = bytes(in, l), ob = bytes(out, l);
+        ByteOrder io = in.order(), oo = out.order();
+        FloatVector t = pair(tx, ty), s = pair(sx, sy), c = pair(cx, cy);
+        for (int i = 0; i < l; i += LANES) {
+            FloatVector.fromByteBuffer(SPECIES, ib, i * 4, io)
+                       .add(t).mul(s).mul(u).add(c)
+                       .intoByteBuffer(ob, i * 4, oo);
+        }
+        return l;
+    }
+
+    static int toWorld(FloatBuffer in, FloatBuffer out, int count, float tx, float ty, float sx, float sy, float u, float cx, float cy) {
+        if (!in.isDirect() || !out.isDirect())
+            return 0;
+
+        int l = SPECIES.loopBound(count * 2);
+        if (l == 0)
+            return 0;
+
+        // Float views of byte buffers take the order of the byte buffer, which is big endian unless it was changed
+        ByteBuffer ib = bytes(in, l), ob = bytes(out, l);
+        ByteOrder io = in.order(), oo = out.order();
+        FloatVector t = pair(tx, ty), s = pair(sx, sy), c = pair(cx, cy);
+        for (int i = 0; i < l; i += LANES) {
+            FloatVector.fromByteBuffer(SPECIES, ib, i * 4, io)
+                       .sub(c).div(u).div(s).sub(t)
+                       .intoByteBuffer(ob, i * 4, oo);
+        }
+        return l;
+    }
+
+    private static ByteBuffer bytes(FloatBuffer buf, int floats) {
+        return memByteBuffer(memAddress(buf), floats * 4);
+    }
+}
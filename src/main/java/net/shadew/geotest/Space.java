@@ -20,6 +20,8 @@ package net.shadew.geotest;
 import org.joml.Vector2f;
 import org.joml.Vector2fc;
 
+import java.nio.FloatBuffer;
+
 class Space {
     private static final float SCALE_MAX = 100f;
     private static final float SCALE_MIN = 0.02f;
@@ -28,12 +30,21 @@ class Space {
     private float x = 0, y = 0;
     private float screenW, screenH;
     private float unitLength = 50;
+    private int version;
 
     public void screenSize(float w, float h) {
+        if (w != screenW || h != screenH)
+            version++;
+
         screenW = w;
         screenH = h;
     }
 
+    // Changes whenever the transform between world and screen changes
+    public int version() {
+        return version;
+    }
+
     public float x() {
         return x;
     }
@@ -43,23 +54,19 @@ class Space {
     }
 
     public void pos(float x, float y) {
+        if (x != this.x || y != this.y)
+            version++;
+
         this.x = x;
         this.y = y;
     }
 
     public void pan(float x, float y) {
-        this.x += x;
-        this.y += y;
+        pos(this.x + x, this.y + y);
     }
 
     public void zoom(float delta) {
-        this.scale *= Math.pow(2, delta);
-
-        if (scale > SCALE_MAX)
-            scale = SCALE_MAX;
-
-        if (scale < SCALE_MIN)
-            scale = SCALE_MIN;
+        scale((float) (scale * Math.pow(2, delta)));
     }
 
     public void scale(float scale) {
@@ -69,6 +76,9 @@ class Space {
         if (scale < SCALE_MIN)
             scale = SCALE_MIN;
 
+        if (scale != this.scale)
+            version++;
+
         this.scale = scale;
     }
 
@@ -109,6 +119,9 @@ class Space {
     }
 
     public void unitLength(float unitLength) {
+        if (unitLength != this.unitLength)
+            version++;
+
         this.unitLength = unitLength;
     }
 
@@ -199,4 +212,20 @@ class Space {
     public float posYToWorld(float y) {
         return (y - screenH / 2f) / unitLength / -scale - this.y;
     }
+
+    public void posToScreen(float[] in, int inOff, float[] out, int outOff, int count) {
+        BulkTransform.toScreen(in, inOff, out, outOff, count, x, y, scale, -scale, unitLength, screenW / 2f, screenH / 2f);
+    }
+
+    public void posToScreen(FloatBuffer in, FloatBuffer out, int count) {
+        BulkTransform.toScreen(in, out, count, x, y, scale, -scale, unitLength, screenW / 2f, screenH / 2f);
+    }
+
+    public void posToWorld(float[] in, int inOff, float[] out, int outOff, int count) {
+        BulkTransform.toWorld(in, inOff, out, outOff, count, x, y, scale, -scale, unitLength, screenW / 2f, screenH / 2f);
+    }
+
+    public void posToWorld(FloatBuffer in, FloatBuffer out, int count) {
+        BulkTransform.toWorld(in, out, count, x, y, scale, -scale, unitLength, screenW / 2f, screenH / 2f);
+    }
 }
@@ -0,0 +1,578 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A GeometryContext that streams everything it draws to a writer as SVG. Nothing is retained, apart from the path
+ * that is currently being built, so memory use does not grow with the number of primitives in a frame. Coordinates
+ * are quantised to a fixed number of decimals, and consecutive fills or strokes of the same opaque style are merged
+ * into a single path element. Translucent primitives are never merged, as merging them would change how their
+ * overlaps blend, and neither are fills that overlap a fill in the open element, as NanoVG fills every shape by itself
+ * while overlapping shapes of opposite winding in one SVG path cancel out.
+ * <p>
+ * Text is laid out with fixed metrics that approximate the default monospaced font.
+ */
+public class SvgContext extends HeadlessContext {
+    private static final int NONE = 0;
+    private static final int FILL = 1;
+    private static final int STROKE = 2;
+
+    // Maximum number of fills merged into one element, as every merged fill is tested for overlap
+    private static final int MAX_MERGED = 256;
+
+    private final Writer out;
+    private final int decimals;
+    private final long scale;
+
+    // Path data of the current path, in SVG syntax
+    private final StringBuilder path = new StringBuilder();
+    private final StringBuilder tmp = new StringBuilder();
+    private char[] chars = new char[1024];
+    private float lastX, lastY;
+    private boolean hasPoint;
+
+    // Bounds of the current path, including control points
+    private float pathL, pathT, pathR, pathB;
+
+    // Style of the path element that is still open, so that primitives of the same style can be added to it
+    private int openKind = NONE;
+    private int openCol;
+    private float openWdt;
+    private LineJoin openJoin;
+    private LineEnd openEnd;
+    private float openMiter;
+
+    // Bounds of the fills in the open element, as left, top, right, bottom
+    private final float[] merged = new float[MAX_MERGED * 4];
+    private int mergedCount;
+
+    private LineJoin join;
+    private LineEnd end;
+    private float miter;
+
+    SvgContext(Space space, FrameStats frameStats, Writer out, int decimals) {
+        super(space, frameStats);
+        this.out = out;
+        this.decimals = decimals;
+
+        long s = 1;
+        for (int i = 0; i < decimals; i++)
+            s *= 10;
+        this.scale = s;
+        resetLineStyle();
+    }
+
+    /**
+     * Draws one frame of the given scene as an SVG document. The scene must already be initialised, its current state
+     * is drawn as seen through the given space.
+     */
+    public static void export(TestScene scene, Space space, FrameStats frameStats, int bg, Writer out) {
+        SvgContext svg = new SvgContext(space, frameStats, out, 2);
+        svg.update(space.screenW() / 2, space.screenH() / 2);
+        svg.beginDocument(bg);
+        scene.draw(svg);
+        svg.endDocument();
+    }
+
+    void beginDocument(int bg) {
+        beginFrame();
+
+        tmp.setLength(0);
+        tmp.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+        num(tmp, space.screenW());
+        tmp.append("\" height=\"");
+        num(tmp, space.screenH());
+        tmp.append("\" viewBox=\"0 0 ");
+        num(tmp, space.screenW());
+        tmp.append(' ');
+        num(tmp, space.screenH());
+        tmp.append("\">\n");
+
+        if ((bg >>> 24) != 0) {
+            tmp.append("<rect width=\"100%\" height=\"100%\"");
+            color(tmp, " fill", bg);
+            tmp.append("/>\n");
+        }
+        write(tmp);
+    }
+
+    void endDocument() {
+        closeElement();
+        tmp.setLength(0);
+        tmp.append("</svg>\n");
+        write(tmp);
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write SVG", e);
+        }
+    }
+
+    @Override
+    void beginFrame() {
+        super.beginFrame();
+        resetLineStyle();
+    }
+
+    private void resetLineStyle() {
+        join = LineJoin.MITER;
+        end = LineEnd.FLAT;
+        miter = 10;
+    }
+
+    // Paths
+
+    @Override
+    void pathBegin() {
+        path.setLength(0);
+        hasPoint = false;
+        pathL = pathT = Float.POSITIVE_INFINITY;
+        pathR = pathB = Float.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    void pathClose() {
+        path.append('Z');
+    }
+
+    @Override
+    void pathMoveTo(float x, float y) {
+        path.append('M');
+        point(x, y);
+    }
+
+    @Override
+    void pathLineTo(float x, float y) {
+        path.append('L');
+        point(x, y);
+    }
+
+    @Override
+    void pathQuadTo(float cx, float cy, float x, float y) {
+        path.append('Q');
+        point(cx, cy);
+        path.append(' ');
+        point(x, y);
+    }
+
+    @Override
+    void pathCubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        path.append('C');
+        point(c1x, c1y);
+        path.append(' ');
+        point(c2x, c2y);
+        path.append(' ');
+        point(x, y);
+    }
+
+    @Override
+    void pathArcTo(float x, float y, float x2, float y2, float r) {
+        // Same construction as nvgArcTo: an arc tangent to both legs of the corner at x, y
+        float dx0 = lastX - x, dy0 = lastY - y;
+        float dx1 = x2 - x, dy1 = y2 - y;
+        float l0 = (float) Math.sqrt(dx0 * dx0 + dy0 * dy0);
+        float l1 = (float) Math.sqrt(dx1 * dx1 + dy1 * dy1);
+        if (!hasPoint || l0 < 1e-4f || l1 < 1e-4f || r < 1e-4f) {
+            pathLineTo(x, y);
+            return;
+        }
+
+        dx0 /= l0;
+        dy0 /= l0;
+        dx1 /= l1;
+        dy1 /= l1;
+        float a = (float) Math.acos(Math.max(-1, Math.min(1, dx0 * dx1 + dy0 * dy1)));
+        float d = r / (float) Math.tan(a / 2);
+        if (d > 10000) {
+            pathLineTo(x, y);
+            return;
+        }
+
+        float cross = dx1 * dy0 - dx0 * dy1;
+        pathLineTo(x + dx0 * d, y + dy0 * d);
+        // The arc stays within the corner
+        extend(x, y, x, y);
+        arc(r, r, false, cross > 0, x + dx1 * d, y + dy1 * d);
+    }
+
+    @Override
+    void pathCircle(float cx, float cy, float r) {
+        pathEllipse(cx, cy, r, r);
+    }
+
+    @Override
+    void pathEllipse(float cx, float cy, float rx, float ry) {
+        // Same winding as nvgEllipse
+        pathMoveTo(cx - rx, cy);
+        extend(cx - rx, cy - ry, cx + rx, cy + ry);
+        arc(rx, ry, true, false, cx + rx, cy);
+        arc(rx, ry, true, false, cx - rx, cy);
+        pathClose();
+    }
+
+    @Override
+    void pathRect(float x, float y, float w, float h) {
+        pathMoveTo(x, y);
+        pathLineTo(x, y + h);
+        pathLineTo(x + w, y + h);
+        pathLineTo(x + w, y);
+        pathClose();
+    }
+
+    @Override
+    void pathRoundRect(float x, float y, float w, float h, float cr) {
+        float r = Math.min(cr, Math.min(Math.abs(w), Math.abs(h)) / 2);
+        if (r < 0.1f) {
+            pathRect(x, y, w, h);
+            return;
+        }
+
+        float rx = r * Math.signum(w), ry = r * Math.signum(h);
+        boolean sweep = w * h < 0;
+        pathMoveTo(x, y + ry);
+        pathLineTo(x, y + h - ry);
+        arc(r, r, false, sweep, x + rx, y + h);
+        pathLineTo(x + w - rx, y + h);
+        arc(r, r, false, sweep, x + w, y + h - ry);
+        pathLineTo(x + w, y + ry);
+        arc(r, r, false, sweep, x + w - rx, y);
+        pathLineTo(x + rx, y);
+        arc(r, r, false, sweep, x, y + ry);
+        pathClose();
+    }
+
+    @Override
+    void pathArc(float cx, float cy, float r, float from, float to) {
+        // Counter-clockwise, like the arcs NvgContext draws
+        float da = to - from;
+        if (Math.abs(da) >= 2 * Math.PI) {
+            da = -2 * (float) Math.PI;
+        } else {
+            while (da > 0)
+                da -= 2 * (float) Math.PI;
+        }
+
+        float x0 = cx + r * (float) Math.cos(from), y0 = cy + r * (float) Math.sin(from);
+        if (hasPoint)
+            pathLineTo(x0, y0);
+        else
+            pathMoveTo(x0, y0);
+        extend(cx - r, cy - r, cx + r, cy + r);
+
+        // SVG can't draw a full circle in one arc
+        if (da <= -2 * Math.PI + 1e-4f) {
+            arc(r, r, true, false, cx - (x0 - cx), cy - (y0 - cy));
+            arc(r, r, true, false, x0, y0);
+        } else {
+            float a1 = from + da;
+            arc(r, r, da < -Math.PI, false, cx + r * (float) Math.cos(a1), cy + r * (float) Math.sin(a1));
+        }
+    }
+
+    private void arc(float rx, float ry, boolean large, boolean sweep, float x, float y) {
+        path.append('A');
+        num(path, rx);
+        path.append(' ');
+        num(path, ry);
+        path.append(" 0 ").append(large ? '1' : '0').append(' ').append(sweep ? '1' : '0').append(' ');
+        point(x, y);
+    }
+
+    private void point(float x, float y) {
+        num(path, x);
+        path.append(' ');
+        num(path, y);
+        lastX = x;
+        lastY = y;
+        hasPoint = true;
+        extend(x, y, x, y);
+    }
+
+    private void extend(float l, float t, float r, float b) {
+        pathL = Math.min(pathL, l);
+        pathT = Math.min(pathT, t);
+        pathR = Math.max(pathR, r);
+        pathB = Math.max(pathB, b);
+    }
+
+    // Whether the current path overlaps any fill in the open element. Shapes that only touch can't cancel each other
+    private boolean overlapsMerged() {
+        float[] m = merged;
+        for (int i = 0, n = mergedCount * 4; i < n; i += 4) {
+            if (pathL < m[i + 2] && m[i] < pathR && pathT < m[i + 3] && m[i + 1] < pathB)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    void pathFill(float r, float g, float b, float a) {
+        emit(FILL, argb(r, g, b, a), 0);
+    }
+
+    @Override
+    void pathStroke(float wdt, float r, float g, float b, float a) {
+        emit(STROKE, argb(r, g, b, a), wdt);
+    }
+
+    @Override
+    void applyLineJoin(LineJoin join) {
+        this.join = join;
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyLineEnd(LineEnd end) {
+        this.end = end;
+        stats.stateChanges++;
+    }
+
+    @Override
+    void applyMiterLimit(float lim) {
+        this.miter = lim;
+        stats.stateChanges++;
+    }
+
+    private void emit(int kind, int col, float wdt) {
+        if (path.isEmpty())
+            return;
+
+        boolean opaque = (col >>> 24) == 0xFF;
+        boolean same = opaque && kind == openKind && col == openCol && (kind == FILL
+            ? mergedCount < MAX_MERGED && !overlapsMerged()
+            : wdt == openWdt && join == openJoin && end == openEnd && miter == openMiter);
+
+        if (!same) {
+            closeElement();
+            openKind = kind;
+            openCol = col;
+            openWdt = wdt;
+            openJoin = join;
+            openEnd = end;
+            openMiter = miter;
+            mergedCount = 0;
+
+            tmp.setLength(0);
+            tmp.append("<path d=\"");
+            write(tmp);
+        }
+        write(path);
+
+        if (kind == FILL) {
+            int i = mergedCount++ * 4;
+            merged[i] = pathL;
+            merged[i + 1] = pathT;
+            merged[i + 2] = pathR;
+            merged[i + 3] = pathB;
+        }
+
+        // Translucent paths are closed right away, nothing may be merged into them
+        if (!opaque)
+            closeElement();
+    }
+
+    private void closeElement() {
+        if (openKind == NONE)
+            return;
+
+        tmp.setLength(0);
+        tmp.append('"');
+        if (openKind == FILL) {
+            color(tmp, " fill", openCol);
+        } else {
+            tmp.append(" fill=\"none\"");
+            color(tmp, " stroke", openCol);
+            tmp.append(" stroke-width=\"");
+            num(tmp, openWdt);
+            tmp.append('"');
+            switch (openJoin) {
+                case MITER -> {
+                    tmp.append(" stroke-miterlimit=\"");
+                    num(tmp, openMiter);
+                    tmp.append('"');
+                }
+                case ROUND -> tmp.append(" stroke-linejoin=\"round\"");
+                case BUTT -> tmp.append(" stroke-linejoin=\"bevel\"");
+            }
+            switch (openEnd) {
+                case FLAT -> {
+                }
+                case ROUND -> tmp.append(" stroke-linecap=\"round\"");
+                case SQUARE -> tmp.append(" stroke-linecap=\"square\"");
+            }
+        }
+        tmp.append("/>\n");
+        write(tmp);
+        openKind = NONE;
+    }
+
+    // Text
+
+    @Override
+    public void drawHudText(String text, float x, float y, int col, float size) {
+        MonoText.line(text, x, y, size, alignX, alignY, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, tbox.hi.x, tbox.hi.y, 0))
+            return;
+
+        textStart(tbox.lo.x, tbox.lo.y + MonoText.ASCENT * size, col, size);
+        escape(tmp, text, 0, text.length());
+        tmp.append("</text>\n");
+        write(tmp);
+        stats.texts++;
+    }
+
+    @Override
+    public void drawHudTextBox(String text, float x, float y, int col, float wrapWdt, float size) {
+        MonoText.box(text, x, y, wrapWdt, size, alignX, alignY, tbox);
+        if (!submit(tbox.lo.x, tbox.lo.y, Math.max(tbox.hi.x, tbox.lo.x + wrapWdt), tbox.hi.y, 0))
+            return;
+
+        // Rows are aligned within the wrap width, like NvgContext does
+        float bx = MonoText.alignX(x, wrapWdt, alignX);
+        int perRow = MonoText.perRow(wrapWdt, size);
+        float rowY = tbox.lo.y + MonoText.ASCENT * size;
+
+        textStart(bx, rowY, col, size);
+        for (int start = 0, len = text.length(); start < len; ) {
+            int end = MonoText.rowEnd(text, start, perRow);
+            float w = (end - start) * MonoText.ADVANCE * size;
+            float rx = switch (alignX) {
+                case LEFT -> bx;
+                case CENTER -> bx + wrapWdt / 2 - w / 2;
+                case RIGHT -> bx + wrapWdt - w;
+            };
+
+            tmp.append("<tspan x=\"");
+            num(tmp, rx);
+            tmp.append("\" y=\"");
+            num(tmp, rowY);
+            tmp.append("\">");
+            escape(tmp, text, start, end);
+            tmp.append("</tspan>");
+
+            rowY += MonoText.LINE_HEIGHT * size;
+            start = MonoText.nextRow(text, end);
+        }
+        tmp.append("</text>\n");
+        write(tmp);
+        stats.texts++;
+    }
+
+    private void textStart(float x, float y, int col, float size) {
+        closeElement();
+
+        tmp.setLength(0);
+        tmp.append("<text x=\"");
+        num(tmp, x);
+        tmp.append("\" y=\"");
+        num(tmp, y);
+        tmp.append("\" font-family=\"JetBrains Mono, monospace\" font-size=\"");
+        num(tmp, size);
+        tmp.append('"');
+
+        int weight = weight(font);
+        if (weight != 400)
+            tmp.append(" font-weight=\"").append(weight).append('"');
+        if (font.endsWith("Italic"))
+            tmp.append(" font-style=\"italic\"");
+
+        color(tmp, " fill", col);
+        tmp.append(" xml:space=\"preserve\">");
+    }
+
+    private static int weight(String font) {
+        if (font.contains("ExtraLight")) return 200;
+        if (font.contains("Thin")) return 100;
+        if (font.contains("Light")) return 300;
+        if (font.contains("Medium")) return 500;
+        if (font.contains("SemiBold")) return 600;
+        if (font.contains("ExtraBold")) return 800;
+        if (font.contains("Bold")) return 700;
+        return 400;
+    }
+
+    // Output
+
+    private void num(StringBuilder sb, float v) {
+        if (!Float.isFinite(v)) {
+            sb.append('0');
+            return;
+        }
+
+        long q = Math.round((double) v * scale);
+        if (q < 0) {
+            sb.append('-');
+            q = -q;
+        }
+        sb.append(q / scale);
+
+        long frac = q % scale;
+        if (frac != 0) {
+            sb.append('.');
+            long div = scale / 10;
+            while (frac != 0) {
+                sb.append((char) ('0' + frac / div));
+                frac %= div;
+                div /= 10;
+            }
+        }
+    }
+
+    private static void color(StringBuilder sb, String attr, int argb) {
+        sb.append(attr).append("=\"#");
+        for (int shift = 20; shift >= 0; shift -= 4)
+            sb.append(Character.forDigit(argb >>> shift & 0xF, 16));
+        sb.append('"');
+
+        int a = argb >>> 24;
+        if (a != 0xFF) {
+            sb.append(attr).append("-opacity=\"");
+            sb.append(Math.round(a / 0.255f) / 1000f);
+            sb.append('"');
+        }
+    }
+
+    private static void escape(StringBuilder sb, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    private void write(StringBuilder sb) {
+        int n = sb.length();
+        if (chars.length < n)
+            chars = new char[Math.max(n, chars.length * 2)];
+        sb.getChars(0, n, chars, 0);
+
+        try {
+            out.write(chars, 0, n);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write SVG", e);
+        }
+    }
+}
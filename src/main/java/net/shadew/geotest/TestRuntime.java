@@ -21,6 +21,8 @@ import org.lwjgl.opengl.GL;
 
 import java.nio.DoubleBuffer;
 import java.nio.IntBuffer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.nanovg.NanoVGGL3.*;
@@ -28,6 +30,15 @@ import static org.lwjgl.system.MemoryStack.*;
 import static org.lwjgl.system.MemoryUtil.*;
 
 class TestRuntime {
+    // How long to block for events when nothing needs to be drawn, which bounds the latency of redraws that are not
+    // caused by events (a running animation, a blinking cursor)
+    private static final double IDLE_TIMEOUT = 0.1;
+    private static final double ICONIFIED_TIMEOUT = 0.5;
+    private static final double UNFOCUSED_INTERVAL = 1 / 15d;
+
+    // The frame limiter sleeps until this close to the deadline, and spins for the rest since sleeping is not precise
+    private static final long SPIN_NANOS = 2_000_000;
+
     private long window = NULL;
     private long nvg = NULL;
 
@@ -37,12 +48,28 @@ class TestRuntime {
     private final Runnable init;
     private final Runnable loop;
     private final Runnable stop;
+    private final BooleanSupplier needsRedraw;
     private float mouseX, mouseY;
 
-    TestRuntime(Runnable init, Runnable loop, Runnable stop) {
+    private boolean redraw = true;
+    private boolean focused = true;
+    private boolean iconified;
+    private double lastFrame;
+
+    private final FrameStats frameStats = new FrameStats(1024);
+    private final FrameProfiler profiler = new FrameProfiler(240);
+    private FramePacing pacing = FramePacing.VSYNC;
+    private double targetFps = 60;
+    private boolean pacingChanged = true;
+    private boolean printFrameStats;
+    private boolean offline;
+    private long frameStart;
+
+    TestRuntime(Runnable init, Runnable loop, Runnable stop, BooleanSupplier needsRedraw) {
         this.init = init;
         this.loop = loop;
         this.stop = stop;
+        this.needsRedraw = needsRedraw;
     }
 
     @SuppressWarnings("StatementWithEmptyBody")
@@ -58,6 +85,41 @@ class TestRuntime {
         }
     }
 
+    public FrameStats frameStats() {
+        return frameStats;
+    }
+
+    FrameProfiler profiler() {
+        return profiler;
+    }
+
+    public void pacing(FramePacing pacing) {
+        this.pacing = pacing;
+        pacingChanged = true;
+    }
+
+    public FramePacing pacing() {
+        return pacing;
+    }
+
+    public void targetFps(double fps) {
+        targetFps = fps;
+    }
+
+    public double targetFps() {
+        return targetFps;
+    }
+
+    // Offline rendering draws frames as fast as possible, regardless of pacing, focus or visibility
+    public void offline(boolean offline) {
+        this.offline = offline;
+        pacingChanged = true;
+    }
+
+    public void printFrameStats(boolean print) {
+        printFrameStats = print;
+    }
+
     public long window() {
         return window;
     }
@@ -105,10 +167,19 @@ class TestRuntime {
         glfwMakeContextCurrent(window);
         GL.createCapabilities();
 
-        glfwSwapInterval(1);
-
         nvg = nvgCreate(0);
 
+        glfwSetWindowRefreshCallback(window, w -> redraw = true);
+        glfwSetFramebufferSizeCallback(window, (w, width, height) -> redraw = true);
+        glfwSetWindowFocusCallback(window, (w, focus) -> {
+            focused = focus;
+            redraw = true;
+        });
+        glfwSetWindowIconifyCallback(window, (w, iconify) -> {
+            iconified = iconify;
+            redraw = true;
+        });
+
         updateWindowInfo();
 
         init.run();
@@ -139,17 +210,79 @@ class TestRuntime {
     }
 
     private boolean loop() {
+        if (pacingChanged) {
+            glfwSwapInterval(pacing == FramePacing.VSYNC && !offline ? 1 : 0);
+            pacingChanged = false;
+        }
+
+        if (iconified && !offline) {
+            idle(ICONIFIED_TIMEOUT);
+            return !glfwWindowShouldClose(window);
+        }
+
+        if (!focused && !offline) {
+            double wait = lastFrame + UNFOCUSED_INTERVAL - glfwGetTime();
+            if (wait > 0) {
+                idle(wait);
+                return !glfwWindowShouldClose(window);
+            }
+        }
+
+        // Always ask, some sources of redraws need to be reset every frame
+        boolean draw = needsRedraw.getAsBoolean() | redraw;
+        if (!draw) {
+            idle(IDLE_TIMEOUT);
+            return !glfwWindowShouldClose(window);
+        }
+
+        long now = System.nanoTime();
+        if (frameStart != 0)
+            frameStats.record(now - frameStart);
+        frameStart = now;
+
+        redraw = false;
+        lastFrame = glfwGetTime();
+        profiler.beginFrame();
         updateWindowInfo();
         loop.run();
 
+        profiler.begin(FrameProfiler.SWAP);
         glfwSwapBuffers(window);
+        profiler.end(FrameProfiler.SWAP);
+
+        profiler.begin(FrameProfiler.INPUT);
         glfwPollEvents();
+        profiler.end(FrameProfiler.INPUT);
+        profiler.endFrame();
+
+        if (pacing == FramePacing.LIMITED && targetFps > 0 && !offline)
+            limit(frameStart + (long) (1e9 / targetFps));
+
         return !glfwWindowShouldClose(window);
     }
 
+    private void idle(double timeout) {
+        glfwWaitEventsTimeout(timeout);
+
+        // Time spent idle is not part of any frame
+        frameStart = 0;
+    }
+
+    private static void limit(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS)
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+
+        while (System.nanoTime() < deadline)
+            Thread.onSpinWait();
+    }
+
     private void stop() {
         try {
             stop.run();
+
+            if (printFrameStats)
+                System.out.println("Frame times: " + frameStats);
         } finally {
             if (nvg != NULL)
                 nvgDelete(nvg);
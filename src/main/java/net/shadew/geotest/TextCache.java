@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.lwjgl.nanovg.NVGTextRow;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.lwjgl.nanovg.NanoVG.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/*
+ * Bounded LRU cache of text measurements, keyed by text, font, size, wrap width and alignment. Entries keep the UTF-8
+ * encoded text off-heap so that it can be passed to NanoVG without encoding it again. Measurements are done at the
+ * origin, using the font state that is currently set in NanoVG, so callers must set the font, size and alignment that
+ * belong to the key before they measure an entry.
+ */
+final class TextCache {
+    private static final int ROW_BATCH = 16;
+
+    private final long nvg;
+    private final int capacity;
+    private final RenderStats stats;
+    private final Key probe = new Key();
+    private final Map<Key, Entry> entries;
+    private final float[] bounds = new float[4];
+    private final float[] lineh = new float[1];
+    private final NVGTextRow.Buffer rows = NVGTextRow.malloc(ROW_BATCH);
+
+    private long hits, misses;
+
+    TextCache(long nvg, int capacity, RenderStats stats) {
+        this.nvg = nvg;
+        this.capacity = capacity;
+        this.stats = stats;
+        this.entries = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > TextCache.this.capacity) {
+                    eldest.getValue().free();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+
+    // Measures an entry of a single line of text, looked up with a NaN wrap width
+    void measureLine(Entry e) {
+        nnvgTextBounds(nvg, 0, 0, e.start, e.end, bounds);
+        e.bounds(bounds);
+        stats.measurements++;
+    }
+
+    // Measures an entry of a text box, looked up with the same wrap width and top left alignment
+    void measureBox(Entry e, float wrapWdt) {
+        nnvgTextBoxBounds(nvg, 0, 0, wrapWdt, e.start, e.end, bounds);
+        e.bounds(bounds);
+
+        nvgTextMetrics(nvg, null, null, lineh);
+        e.lineHeight = lineh[0];
+        breakLines(e, wrapWdt);
+        stats.measurements++;
+    }
+
+    void clear() {
+        entries.values().forEach(Entry::free);
+        entries.clear();
+    }
+
+    void dispose() {
+        clear();
+        rows.free();
+    }
+
+    // Looks up or creates the entry for a key without measuring it
+    Entry entry(String text, int font, float size, float wrapWdt, int align) {
+        probe.set(text, font, size, wrapWdt, align);
+
+        Entry e = entries.get(probe);
+        if (e == null) {
+            e = new Entry(text);
+            entries.put(probe.copy(), e);
+            misses++;
+        } else {
+            hits++;
+        }
+        return e;
+    }
+
+    private void breakLines(Entry e, float wrapWdt) {
+        long rowsAddr = rows.address();
+        long start = e.start;
+        int n = 0;
+
+        int nrows;
+        while ((nrows = nnvgTextBreakLines(nvg, start, e.end, wrapWdt, rowsAddr, ROW_BATCH)) > 0) {
+            e.ensureRows(n + nrows);
+            for (int i = 0; i < nrows; i++) {
+                long row = rowsAddr + (long) i * NVGTextRow.SIZEOF;
+                e.rowStart[n] = (int) (NVGTextRow.nstart(row) - e.start);
+                e.rowEnd[n] = (int) (NVGTextRow.nend(row) - e.start);
+                e.rowWidth[n] = NVGTextRow.nwidth(row);
+                n++;
+            }
+            start = NVGTextRow.nnext(rowsAddr + (long) (nrows - 1) * NVGTextRow.SIZEOF);
+        }
+
+        e.rowCount = n;
+    }
+
+    static final class Entry {
+        private final ByteBuffer utf8;
+        final long start, end;
+
+        boolean measured;
+        float loX, loY, hiX, hiY;
+
+        float lineHeight;
+        int rowCount;
+        int[] rowStart = new int[0], rowEnd = new int[0];
+        float[] rowWidth = new float[0];
+
+        Entry(String text) {
+            // Null-terminated, so that empty strings still get a valid address
+            utf8 = memUTF8(text);
+            start = memAddress(utf8);
+            end = start + utf8.remaining() - 1;
+        }
+
+        void bounds(float[] b) {
+            loX = b[0];
+            loY = b[1];
+            hiX = b[2];
+            hiY = b[3];
+            measured = true;
+        }
+
+        void ensureRows(int n) {
+            if (n > rowStart.length) {
+                int c = Math.max(n, rowStart.length * 2);
+                rowStart = Arrays.copyOf(rowStart, c);
+                rowEnd = Arrays.copyOf(rowEnd, c);
+                rowWidth = Arrays.copyOf(rowWidth, c);
+            }
+        }
+
+        void free() {
+            memFree(utf8);
+        }
+    }
+
+    private static final class Key {
+        String text;
+        int font;
+        float size;
+        float wrapWdt;
+        int align;
+        int hash;
+
+        void set(String text, int font, float size, float wrapWdt, int align) {
+            this.text = text;
+            this.font = font;
+            this.size = size;
+            this.wrapWdt = wrapWdt;
+            this.align = align;
+
+            int h = text.hashCode();
+            h = 31 * h + font;
+            h = 31 * h + Float.floatToIntBits(size);
+            h = 31 * h + Float.floatToIntBits(wrapWdt);
+            h = 31 * h + align;
+            this.hash = h;
+        }
+
+        Key copy() {
+            Key k = new Key();
+            k.text = text;
+            k.font = font;
+            k.size = size;
+            k.wrapWdt = wrapWdt;
+            k.align = align;
+            k.hash = hash;
+            return k;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key k)) return false;
+            return hash == k.hash
+                       && font == k.font
+                       && align == k.align
+                       && Float.floatToIntBits(size) == Float.floatToIntBits(k.size)
+                       && Float.floatToIntBits(wrapWdt) == Float.floatToIntBits(k.wrapWdt)
+                       && text.equals(k.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Anti-aliased scanline rasteriser for RasterContext. Draw commands are recorded as lists of edges in screen space,
+ * which are filled with the nonzero rule, or as glyph bitmaps. Rendering splits the frame into tiles that are rendered
+ * in parallel on a fork-join pool: commands are first binned into the tiles their bounds overlap, then every tile
+ * draws its commands in order into a tile-sized buffer and copies that into the frame buffer.
+ *
+ * Coverage is computed exactly per pixel by accumulating the signed area that every edge covers and integrating that
+ * along the rows. The absolute value of the area is clamped to 1, which matches the nonzero rule wherever winding
+ * numbers are 0 or of one sign, and that is the case for all shapes that RasterContext builds.
+ */
+final class TileRasterizer {
+    static final int TILE = 64;
+    private static final int STRIDE = TILE + 2;
+
+    // Edges, as x0, y0, x1, y1
+    private float[] edges = new float[4096];
+    private int edgeCount;
+
+    // Commands, a fill covers a range of edges and a glyph refers to a bitmap
+    private int cmdCount;
+    private int[] cmdColor = new int[256];
+    private int[] cmdFrom = new int[256];
+    private int[] cmdTo = new int[256];
+    private float[] cmdBounds = new float[1024];
+    private GlyphCache.Glyph[] cmdGlyph = new GlyphCache.Glyph[256];
+
+    private int cmdStart;
+    private float minX, minY, maxX, maxY;
+
+    // Commands per tile, as offsets into binned
+    private int[] tileStart = new int[0];
+    private int[] binned = new int[0];
+
+    private final ThreadLocal<Tile> tiles = ThreadLocal.withInitial(Tile::new);
+    private final ForkJoinPool pool;
+
+    TileRasterizer(ForkJoinPool pool) {
+        this.pool = pool;
+        resetBounds();
+    }
+
+    int commands() {
+        return cmdCount;
+    }
+
+    void clear() {
+        edgeCount = 0;
+        cmdCount = 0;
+        cmdStart = 0;
+        Arrays.fill(cmdGlyph, null);
+        resetBounds();
+    }
+
+    private void resetBounds() {
+        minX = minY = Float.POSITIVE_INFINITY;
+        maxX = maxY = Float.NEGATIVE_INFINITY;
+    }
+
+    void edge(float x0, float y0, float x1, float y1) {
+        // Horizontal edges cover no area
+        if (y0 == y1)
+            return;
+
+        if (edgeCount * 4 + 4 > edges.length)
+            edges = Arrays.copyOf(edges, edges.length * 2);
+
+        int i = edgeCount * 4;
+        edges[i] = x0;
+        edges[i + 1] = y0;
+        edges[i + 2] = x1;
+        edges[i + 3] = y1;
+        edgeCount++;
+
+        minX = Math.min(minX, Math.min(x0, x1));
+        minY = Math.min(minY, Math.min(y0, y1));
+        maxX = Math.max(maxX, Math.max(x0, x1));
+        maxY = Math.max(maxY, Math.max(y0, y1));
+    }
+
+    // Ends the fill that consists of all edges added since the last command
+    void fill(int argb) {
+        if (edgeCount > cmdStart && (argb >>> 24) != 0)
+            command(argb, cmdStart, edgeCount, null, minX, minY, maxX, maxY);
+        cmdStart = edgeCount;
+        resetBounds();
+    }
+
+    void glyph(GlyphCache.Glyph glyph, int x, int y, int argb) {
+        if (glyph.w() > 0 && (argb >>> 24) != 0)
+            command(argb, 0, 0, glyph, x, y, x + glyph.w(), y + glyph.h());
+    }
+
+    private void command(int argb, int from, int to, GlyphCache.Glyph glyph, float l, float t, float r, float b) {
+        if (cmdCount == cmdColor.length) {
+            int n = cmdCount * 2;
+            cmdColor = Arrays.copyOf(cmdColor, n);
+            cmdFrom = Arrays.copyOf(cmdFrom, n);
+            cmdTo = Arrays.copyOf(cmdTo, n);
+            cmdBounds = Arrays.copyOf(cmdBounds, n * 4);
+            cmdGlyph = Arrays.copyOf(cmdGlyph, n);
+        }
+
+        int c = cmdCount++;
+        cmdColor[c] = argb;
+        cmdFrom[c] = from;
+        cmdTo[c] = to;
+        cmdGlyph[c] = glyph;
+        cmdBounds[c * 4] = l;
+        cmdBounds[c * 4 + 1] = t;
+        cmdBounds[c * 4 + 2] = r;
+        cmdBounds[c * 4 + 3] = b;
+    }
+
+    // Renders all commands over the given background, into a frame buffer of packed RGBA pixels
+    void render(int bg, int w, int h, IntBuffer out) {
+        int tx = (w + TILE - 1) / TILE, ty = (h + TILE - 1) / TILE;
+        bin(tx, ty, w, h);
+        pool.invoke(new Tiles(0, tx * ty, tx, bg, w, h, out));
+    }
+
+    private void bin(int tx, int ty, int w, int h) {
+        int n = tx * ty;
+        if (tileStart.length < n + 1)
+            tileStart = new int[n + 1];
+        Arrays.fill(tileStart, 0, n + 1, 0);
+
+        // Count commands per tile, then lay out the lists and fill them, keeping the commands in drawing order
+        for (int pass = 0; pass < 2; pass++) {
+            for (int c = 0; c < cmdCount; c++) {
+                // Anti-aliasing reaches one pixel past the bounds
+                int x0 = Math.max(0, (int) Math.floor(cmdBounds[c * 4] - 1) / TILE);
+                int y0 = Math.max(0, (int) Math.floor(cmdBounds[c * 4 + 1] - 1) / TILE);
+                int x1 = Math.min(tx - 1, (int) Math.floor(Math.min(cmdBounds[c * 4 + 2] + 1, w - 1)) / TILE);
+                int y1 = Math.min(ty - 1, (int) Math.floor(Math.min(cmdBounds[c * 4 + 3] + 1, h - 1)) / TILE);
+
+                for (int y = y0; y <= y1; y++) {
+                    for (int x = x0; x <= x1; x++) {
+                        int t = y * tx + x;
+                        if (pass == 0)
+                            tileStart[t + 1]++;
+                        else
+                            binned[tileStart[t]++] = c;
+                    }
+                }
+            }
+
+            if (pass == 0) {
+                for (int t = 0; t < n; t++)
+                    tileStart[t + 1] += tileStart[t];
+                if (binned.length < tileStart[n])
+                    binned = new int[tileStart[n]];
+            } else {
+                // Filling moved every start to the start of the next tile
+                System.arraycopy(tileStart, 0, tileStart, 1, n);
+                tileStart[0] = 0;
+            }
+        }
+    }
+
+    private final class Tiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, tilesX, bg, w, h;
+        private final IntBuffer out;
+
+        Tiles(int from, int to, int tilesX, int bg, int w, int h, IntBuffer out) {
+            this.from = from;
+            this.to = to;
+            this.tilesX = tilesX;
+            this.bg = bg;
+            this.w = w;
+            this.h = h;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 4) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Tiles(from, mid, tilesX, bg, w, h, out), new Tiles(mid, to, tilesX, bg, w, h, out));
+                return;
+            }
+
+            Tile tile = tiles.get();
+            for (int t = from; t < to; t++) {
+                int x = t % tilesX * TILE, y = t / tilesX * TILE;
+                tile.render(x, y, Math.min(TILE, w - x), Math.min(TILE, h - y), bg, t);
+                tile.copy(out, w);
+            }
+        }
+    }
+
+    private final class Tile {
+        private final float[] acc = new float[STRIDE * (TILE + 1)];
+        private final int[] px = new int[TILE * TILE];
+        private final int[] line = new int[TILE];
+        private final int[] rowMin = new int[TILE];
+        private final int[] rowMax = new int[TILE];
+        private int rowLo = Integer.MAX_VALUE, rowHi = -1;
+        private int x, y, w, h;
+
+        void render(int x, int y, int w, int h, int bg, int t) {
+            this.x = x;
+            this.y = y;
+            this.w = w;
+            this.h = h;
+            Arrays.fill(px, bg);
+            Arrays.fill(rowMin, Integer.MAX_VALUE);
+            Arrays.fill(rowMax, -1);
+
+            for (int i = tileStart[t], end = tileStart[t + 1]; i < end; i++) {
+                int c = binned[i];
+                if (cmdGlyph[c] != null)
+                    glyph(cmdGlyph[c], (int) cmdBounds[c * 4], (int) cmdBounds[c * 4 + 1], cmdColor[c]);
+                else
+                    fill(c);
+            }
+        }
+
+        void copy(IntBuffer out, int frameW) {
+            for (int row = 0; row < h; row++) {
+                for (int col = 0; col < w; col++) {
+                    // ARGB to bytes in RGBA order, which is ABGR on little-endian machines
+                    int c = px[row * TILE + col];
+                    line[col] = c & 0xFF00FF00 | c >>> 16 & 0xFF | (c & 0xFF) << 16;
+                }
+                out.put((y + row) * frameW + x, line, 0, w);
+            }
+        }
+
+        private void fill(int c) {
+            int from = cmdFrom[c], to = cmdTo[c];
+            if (!touches(from, to)) {
+                // No edges cross the tile, so it is either entirely inside or entirely outside
+                if (winding(from, to, h / 2f) != 0) {
+                    for (int row = 0; row < h; row++)
+                        for (int i = 0; i < w; i++)
+                            blend(row * TILE + i, cmdColor[c], 1);
+                }
+                return;
+            }
+
+            for (int e = from; e < to; e++) {
+                int i = e * 4;
+                float y0 = edges[i + 1] - y, y1 = edges[i + 3] - y;
+                if (y0 <= 0 && y1 <= 0 || y0 >= h && y1 >= h || edges[i] >= x + w && edges[i + 2] >= x + w)
+                    continue;
+                clipX(edges[i] - x, y0, edges[i + 2] - x, y1);
+            }
+
+            int r0 = rowLo, r1 = rowHi + 1;
+            int col = cmdColor[c];
+            rowLo = Integer.MAX_VALUE;
+            rowHi = -1;
+
+            // Integrate and clear the accumulated area in one go. Past the last column that an edge touched the
+            // coverage no longer changes, so the rest of the row is either empty or one solid span
+            for (int row = r0; row < r1; row++) {
+                int c0 = rowMin[row], c1 = rowMax[row];
+                if (c0 > c1)
+                    continue;
+                rowMin[row] = Integer.MAX_VALUE;
+                rowMax[row] = -1;
+
+                float a = 0;
+                int o = row * STRIDE;
+                for (int i = c0; i <= c1; i++) {
+                    a += acc[o + i];
+                    acc[o + i] = 0;
+                    if (i < w)
+                        blend(row * TILE + i, col, Math.min(1, Math.abs(a)));
+                }
+
+                float cov = Math.min(1, Math.abs(a));
+                if (cov > 0.001f) {
+                    for (int i = c1 + 1; i < w; i++)
+                        blend(row * TILE + i, col, cov);
+                }
+            }
+        }
+
+        // Whether any edge passes through the tile
+        private boolean touches(int from, int to) {
+            for (int e = from; e < to; e++) {
+                int i = e * 4;
+                float x0 = edges[i] - x, y0 = edges[i + 1] - y, x1 = edges[i + 2] - x, y1 = edges[i + 3] - y;
+                if (y0 <= 0 && y1 <= 0 || y0 >= h && y1 >= h || x0 >= w && x1 >= w || x0 <= 0 && x1 <= 0)
+                    continue;
+
+                // Where the edge enters and leaves the rows of the tile
+                float dxdy = (x1 - x0) / (y1 - y0);
+                float xa = x0 + (Math.max(0, Math.min(h, y0)) - y0) * dxdy;
+                float xb = x0 + (Math.max(0, Math.min(h, y1)) - y0) * dxdy;
+                if (Math.max(xa, xb) > 0 && Math.min(xa, xb) < w)
+                    return true;
+            }
+            return false;
+        }
+
+        // Winding number of the left side of the tile at the given row, counting the edges that cross that row left of
+        // the tile. Edges may start or end anywhere else, as long as they pass the row on the left
+        private int winding(int from, int to, float cy) {
+            int winding = 0;
+            for (int e = from; e < to; e++) {
+                int i = e * 4;
+                float x0 = edges[i] - x, y0 = edges[i + 1] - y, x1 = edges[i + 2] - x, y1 = edges[i + 3] - y;
+                if (y0 <= cy == y1 <= cy)
+                    continue;
+
+                float cx = x0 + (cy - y0) * (x1 - x0) / (y1 - y0);
+                if (cx <= 0)
+                    winding += y1 > y0 ? 1 : -1;
+            }
+            return winding;
+        }
+
+        // Splits an edge where it crosses the left and right sides of the tile, so that it can be clamped in x
+        private void clipX(float x0, float y0, float x1, float y1) {
+            float ta = x0 == x1 ? -1 : (0 - x0) / (x1 - x0);
+            float tb = x0 == x1 ? -1 : (w - x0) / (x1 - x0);
+            if (ta > tb) {
+                float t = ta;
+                ta = tb;
+                tb = t;
+            }
+
+            float px = x0, py = y0;
+            if (ta > 0 && ta < 1) {
+                float mx = x0 + ta * (x1 - x0), my = y0 + ta * (y1 - y0);
+                clamped(px, py, mx, my);
+                px = mx;
+                py = my;
+            }
+            if (tb > 0 && tb < 1) {
+                float mx = x0 + tb * (x1 - x0), my = y0 + tb * (y1 - y0);
+                clamped(px, py, mx, my);
+                px = mx;
+                py = my;
+            }
+            clamped(px, py, x1, y1);
+        }
+
+        // Left of the tile an edge covers the entire row, right of it the edge lands in the unused columns
+        private void clamped(float x0, float y0, float x1, float y1) {
+            accumulate(Math.max(0, Math.min(w, x0)), y0, Math.max(0, Math.min(w, x1)), y1);
+        }
+
+        private void accumulate(float x0, float y0, float x1, float y1) {
+            if (y0 == y1)
+                return;
+
+            float dir;
+            if (y0 < y1) {
+                dir = 1;
+            } else {
+                dir = -1;
+                float t = x0;
+                x0 = x1;
+                x1 = t;
+                t = y0;
+                y0 = y1;
+                y1 = t;
+            }
+
+            float dxdy = (x1 - x0) / (y1 - y0);
+            float x = x0;
+            if (y0 < 0)
+                x = Math.max(0, Math.min(w, x - y0 * dxdy));
+
+            int rowStart = Math.max(0, (int) y0), rowEnd = Math.min(h, (int) Math.ceil(y1));
+            rowLo = Math.min(rowLo, rowStart);
+            rowHi = Math.max(rowHi, rowEnd - 1);
+            for (int row = rowStart; row < rowEnd; row++) {
+                int o = row * STRIDE;
+                float dy = Math.min(row + 1, y1) - Math.max(row, y0);
+                // Stepping may drift past the clamped range by a rounding error
+                float xn = Math.max(0, Math.min(w, x + dxdy * dy));
+                float d = dy * dir;
+
+                float xa = Math.min(x, xn), xb = Math.max(x, xn);
+                float xaFloor = (float) Math.floor(xa);
+                int xai = (int) xaFloor;
+                float xbCeil = (float) Math.ceil(xb);
+                int xbi = (int) xbCeil;
+                rowMin[row] = Math.min(rowMin[row], xai);
+                rowMax[row] = Math.max(rowMax[row], Math.max(xbi, xai + 1));
+
+                if (xbi <= xai + 1) {
+                    // Within one pixel, split the area by the average x
+                    float xm = 0.5f * (x + xn) - xaFloor;
+                    acc[o + xai] += d - d * xm;
+                    acc[o + xai + 1] += d * xm;
+                } else {
+                    float s = 1 / (xb - xa);
+                    float xaf = xa - xaFloor;
+                    float a0 = 0.5f * s * (1 - xaf) * (1 - xaf);
+                    float xbf = xb - xbCeil + 1;
+                    float am = 0.5f * s * xbf * xbf;
+
+                    acc[o + xai] += d * a0;
+                    if (xbi == xai + 2) {
+                        acc[o + xai + 1] += d * (1 - a0 - am);
+                    } else {
+                        float a1 = s * (1.5f - xaf);
+                        acc[o + xai + 1] += d * (a1 - a0);
+                        for (int i = xai + 2; i < xbi - 1; i++)
+                            acc[o + i] += d * s;
+                        float a2 = a1 + (xbi - xai - 3) * s;
+                        acc[o + xbi - 1] += d * (1 - a2 - am);
+                    }
+                    acc[o + xbi] += d * am;
+                }
+                x = xn;
+            }
+        }
+
+        private void glyph(GlyphCache.Glyph g, int gx, int gy, int col) {
+            int r0 = Math.max(0, y - gy), r1 = Math.min(g.h(), y + h - gy);
+            int c0 = Math.max(0, x - gx), c1 = Math.min(g.w(), x + w - gx);
+            byte[] alpha = g.alpha();
+
+            for (int row = r0; row < r1; row++) {
+                int o = (gy + row - y) * TILE + gx - x;
+                for (int i = c0; i < c1; i++)
+                    blend(o + i, col, (alpha[row * g.w() + i] & 0xFF) / 255f);
+            }
+        }
+
+        private void blend(int i, int col, float cov) {
+            int a = (int) (cov * (col >>> 24) + 0.5f);
+            if (a == 0)
+                return;
+            if (a == 255) {
+                px[i] = col;
+                return;
+            }
+
+            int dst = px[i];
+            int inv = 255 - a;
+            int r = ((col >>> 16 & 0xFF) * a + (dst >>> 16 & 0xFF) * inv + 127) / 255;
+            int g = ((col >>> 8 & 0xFF) * a + (dst >>> 8 & 0xFF) * inv + 127) / 255;
+            int b = ((col & 0xFF) * a + (dst & 0xFF) * inv + 127) / 255;
+            int da = a + ((dst >>> 24) * inv + 127) / 255;
+            px[i] = da << 24 | r << 16 | g << 8 | b;
+        }
+    }
+}
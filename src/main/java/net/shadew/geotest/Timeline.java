@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.joml.Vector2f;
+
+import java.util.Arrays;
+
+/**
+ * A set of keyframe tracks that play together. Each track animates one float, vector or ARGB color through any number
+ * of keyframes and writes the sampled value straight into its target every time the timeline is applied. Keyframes are
+ * stored in primitive arrays, and because time usually only moves forward, each track remembers the segment it sampled
+ * last and only falls back to a binary search when time jumps.
+ * <p>
+ * Like {@link Animation}, a timeline is applied by the scene while drawing. Times are in milliseconds since the start of
+ * the timeline.
+ */
+public final class Timeline {
+    private static final int UNSTARTED = 0;
+    private static final int STARTED = 1;
+    private static final int FINISHED = 2;
+
+    private final FrameClock clock;
+
+    private Track[] tracks = new Track[4];
+    private int trackCount;
+
+    private int mode = UNSTARTED;
+    private long startTime;
+    private int duration;
+    private boolean loop;
+
+    public Timeline() {
+        this(FrameClock.GLOBAL);
+    }
+
+    public Timeline(FrameClock clock) {
+        this.clock = clock;
+    }
+
+    public FloatTrack track(float[] target, int index) {
+        return add(new FloatTrack(target, index, null));
+    }
+
+    public FloatTrack track(Animatable target) {
+        return add(new FloatTrack(null, 0, target));
+    }
+
+    public VectorTrack track(Vector2f target) {
+        return add(new VectorTrack(target));
+    }
+
+    public ColorTrack colorTrack(int[] target, int index) {
+        return add(new ColorTrack(target, index));
+    }
+
+    private <T extends Track> T add(T track) {
+        if (trackCount == tracks.length)
+            tracks = Arrays.copyOf(tracks, trackCount * 2);
+        tracks[trackCount++] = track;
+        track.timeline = this;
+        return track;
+    }
+
+    public Timeline loop(boolean loop) {
+        this.loop = loop;
+        return this;
+    }
+
+    public int duration() {
+        return duration;
+    }
+
+    public boolean finished() {
+        return mode == FINISHED;
+    }
+
+    public void reset() {
+        mode = UNSTARTED;
+    }
+
+    public void start() {
+        start(0);
+    }
+
+    public void start(int delay) {
+        startTime = clock.millis() + delay;
+        mode = STARTED;
+        clock.active(startTime + duration);
+    }
+
+    public void apply() {
+        if (mode == UNSTARTED) {
+            seek(0);
+        } else if (mode == FINISHED) {
+            seek(duration);
+        } else {
+            long now = clock.millis();
+            long time = now - startTime;
+            if (time < 0) {
+                seek(0);
+            } else if (loop && duration > 0) {
+                seek((int) (time % duration));
+                clock.active(now + duration);
+            } else if (time >= duration) {
+                seek(duration);
+                mode = FINISHED;
+            } else {
+                seek((int) time);
+            }
+        }
+    }
+
+    /**
+     * Samples all tracks at the given time and writes the values to their targets, regardless of whether the timeline
+     * was started.
+     */
+    public void seek(int time) {
+        for (int i = 0; i < trackCount; i++) {
+            Track track = tracks[i];
+            if (track.count > 0)
+                track.apply(time);
+        }
+    }
+
+    public static abstract sealed class Track permits FloatTrack, VectorTrack, ColorTrack {
+        Timeline timeline;
+
+        int[] times = new int[8];
+        Animatable.Easing[] easings = new Animatable.Easing[8];
+        int count;
+
+        // Segment that was sampled last, from key 'cursor' to key 'cursor + 1'
+        private int cursor;
+
+        // Set by locate: the key before the sampled time, and the eased progress towards the key after it
+        int key;
+        float progress;
+
+        Track() {
+        }
+
+        public int keys() {
+            return count;
+        }
+
+        // Adds the time of a key, the caller stores its value at index 'count - 1'
+        void addKey(int time, Animatable.Easing easing) {
+            if (time < 0)
+                throw new RuntimeException("Keyframe time must not be negative");
+            if (count > 0 && time < times[count - 1])
+                throw new RuntimeException("Keyframes must be added in order of time");
+
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                easings = Arrays.copyOf(easings, count * 2);
+                grow(count * 2);
+            }
+            times[count] = time;
+            easings[count] = easing;
+            count++;
+
+            if (time > timeline.duration)
+                timeline.duration = time;
+        }
+
+        abstract void grow(int capacity);
+
+        abstract void apply(int time);
+
+        void locate(int time) {
+            int[] times = this.times;
+            int last = count - 1;
+
+            if (time <= times[0] || last == 0) {
+                key = 0;
+                progress = 0;
+                return;
+            }
+            if (time >= times[last]) {
+                key = last;
+                progress = 0;
+                return;
+            }
+
+            int c = cursor;
+            if (c >= last || time < times[c]) {
+                c = search(time);
+            } else if (time >= times[c + 1]) {
+                // Usually time moved into the next segment, otherwise it jumped ahead
+                c = c + 1 < last && time < times[c + 2] ? c + 1 : search(time);
+            }
+            cursor = c;
+
+            int start = times[c];
+            int end = times[c + 1];
+            key = c;
+            progress = easings[c + 1].ease((time - start) / (float) (end - start));
+        }
+
+        // Finds the last key at or before the given time, which lies strictly between the first and last key
+        private int search(int time) {
+            int lo = 0, hi = count - 1;
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] <= time)
+                    lo = mid;
+                else
+                    hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    public static final class FloatTrack extends Track {
+        private final float[] target;
+        private final int index;
+        private final Animatable animatable;
+        private float[] values = new float[8];
+
+        FloatTrack(float[] target, int index, Animatable animatable) {
+            this.target = target;
+            this.index = index;
+            this.animatable = animatable;
+        }
+
+        public FloatTrack key(int time, float value) {
+            return key(time, value, Animatable.LINEAR);
+        }
+
+        /**
+         * Adds a keyframe. The easing is used for the segment that ends at this keyframe.
+         */
+        public FloatTrack key(int time, float value, Animatable.Easing easing) {
+            addKey(time, easing);
+            values[count - 1] = value;
+            return this;
+        }
+
+        public float sample(int time) {
+            if (count == 0)
+                return 0;
+
+            locate(time);
+            float a = values[key];
+            if (progress == 0)
+                return a;
+            return a + (values[key + 1] - a) * progress;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void apply(int time) {
+            float v = sample(time);
+            if (animatable != null)
+                animatable.set(v);
+            else
+                target[index] = v;
+        }
+    }
+
+    public static final class VectorTrack extends Track {
+        private final Vector2f target;
+        private float[] values = new float[16];
+
+        VectorTrack(Vector2f target) {
+            this.target = target;
+        }
+
+        public VectorTrack key(int time, float x, float y) {
+            return key(time, x, y, Animatable.LINEAR);
+        }
+
+        /**
+         * Adds a keyframe. The easing is used for the segment that ends at this keyframe.
+         */
+        public VectorTrack key(int time, float x, float y, Animatable.Easing easing) {
+            addKey(time, easing);
+            values[count * 2 - 2] = x;
+            values[count * 2 - 1] = y;
+            return this;
+        }
+
+        public Vector2f sample(int time, Vector2f dest) {
+            if (count == 0)
+                return dest.zero();
+
+            locate(time);
+            int i = key * 2;
+            float x = values[i], y = values[i + 1];
+            if (progress == 0)
+                return dest.set(x, y);
+            float t = progress;
+            return dest.set(
+                x + (values[i + 2] - x) * t,
+                y + (values[i + 3] - y) * t
+            );
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity * 2);
+        }
+
+        @Override
+        void apply(int time) {
+            sample(time, target);
+        }
+    }
+
+    public static final class ColorTrack extends Track {
+        private final int[] target;
+        private final int index;
+        private int[] values = new int[8];
+
+        ColorTrack(int[] target, int index) {
+            this.target = target;
+            this.index = index;
+        }
+
+        public ColorTrack key(int time, int argb) {
+            return key(time, argb, Animatable.LINEAR);
+        }
+
+        /**
+         * Adds a keyframe. The easing is used for the segment that ends at this keyframe.
+         */
+        public ColorTrack key(int time, int argb, Animatable.Easing easing) {
+            addKey(time, easing);
+            values[count - 1] = argb;
+            return this;
+        }
+
+        public int sample(int time) {
+            if (count == 0)
+                return 0;
+
+            locate(time);
+            int a = values[key];
+            if (progress == 0)
+                return a;
+            return mix(a, values[key + 1], progress);
+        }
+
+        // Interpolates each channel separately, clamping so that overshooting easings don't wrap around
+        private static int mix(int a, int b, float t) {
+            int col = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                int ca = a >>> shift & 0xFF;
+                int cb = b >>> shift & 0xFF;
+                int c = Math.round(ca + (cb - ca) * t);
+                col |= Math.max(0, Math.min(255, c)) << shift;
+            }
+            return col;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void apply(int time) {
+            target[index] = sample(time);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimationSchedulerTest {
+    private long time = 1000;
+    private final FrameClock clock = new FrameClock() {
+        @Override
+        public long millis() {
+            return time;
+        }
+    };
+    private final AnimationScheduler scheduler = new AnimationScheduler(clock);
+
+    @Test
+    void interpolatesAndFinishes() {
+        float[] v = new float[1];
+        scheduler.start(v, 0, 10, 20, 100, Animatable.LINEAR);
+
+        scheduler.update();
+        assertEquals(10, v[0], 1e-5f);
+
+        time += 25;
+        scheduler.update();
+        assertEquals(12.5f, v[0], 1e-5f);
+
+        time += 75;
+        scheduler.update();
+        assertEquals(20, v[0], 1e-5f);
+        assertEquals(0, scheduler.active());
+    }
+
+    @Test
+    void waitsForDelay() {
+        float[] v = {-1};
+        scheduler.start(v, 0, 0, 1, 100, 50, Animatable.LINEAR);
+
+        time += 40;
+        scheduler.update();
+        assertEquals(0, v[0]);
+
+        time += 60;
+        scheduler.update();
+        assertEquals(0.5f, v[0], 1e-5f);
+    }
+
+    @Test
+    void compactionKeepsRemainingAnimations() {
+        float[] v = new float[4];
+        scheduler.start(v, 0, 0, 1, 100, Animatable.LINEAR);
+        scheduler.start(v, 1, 0, 1, 50, Animatable.LINEAR);
+        scheduler.start(v, 2, 0, 1, 200, t -> t * t);
+        scheduler.start(v, 3, 0, 1, 50, Animatable.LINEAR);
+
+        time += 50;
+        scheduler.update();
+        assertEquals(2, scheduler.active());
+        assertEquals(1, v[1]);
+        assertEquals(1, v[3]);
+
+        time += 50;
+        scheduler.update();
+        assertEquals(1, scheduler.active());
+        assertEquals(1, v[0]);
+        assertEquals(0.25f, v[2], 1e-5f);
+
+        // Finished animations no longer write
+        v[0] = v[1] = v[3] = -1;
+        time += 50;
+        scheduler.update();
+        assertEquals(-1, v[0]);
+        assertEquals(0.5625f, v[2], 1e-5f);
+    }
+
+    @Test
+    void setsAnimatables() {
+        float[] v = new float[1];
+        scheduler.start(t -> v[0] = t, 100, Animatable.QUAD_IN);
+
+        time += 50;
+        scheduler.update();
+        assertEquals(0.25f, v[0], 1e-5f);
+
+        time += 50;
+        scheduler.update();
+        assertEquals(1, v[0]);
+        assertEquals(0, scheduler.active());
+    }
+
+    @Test
+    void advancesLargeSetsInParallel() {
+        int n = 20000;
+        float[] v = new float[n];
+        for (int i = 0; i < n; i++) {
+            float p = 1 + i % 4;
+            scheduler.start(v, i, 0, 1, 100, t -> (float) Math.pow(t, p));
+        }
+
+        time += 50;
+        scheduler.update();
+        for (int i = 0; i < n; i++)
+            assertEquals((float) Math.pow(0.5, 1 + i % 4), v[i], 1e-5f);
+
+        time += 50;
+        scheduler.update();
+        assertEquals(0, scheduler.active());
+    }
+
+    @Test
+    void clearStopsEverything() {
+        float[] v = new float[1];
+        scheduler.start(v, 0, 0, 1, 100, Animatable.LINEAR);
+        scheduler.clear();
+
+        time += 50;
+        scheduler.update();
+        assertEquals(0, v[0]);
+        assertEquals(0, scheduler.active());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BakedEasingTest {
+    private static final Animatable.Easing[] SMOOTH = {
+        Animatable.SIN_IN_OUT,
+        Animatable.QUAD_IN_OUT,
+        Animatable.CUBIC_OUT,
+        Animatable.QUINT_IN_OUT,
+        Animatable.hyperInOut(3),
+        Animatable.cubicBezier2D(0.42f, 0, 0.58f, 1)
+    };
+
+    // Largest error over many more points than the baking checks
+    private static float error(BakedEasing baked) {
+        float max = 0;
+        for (int i = 0; i <= 100000; i++) {
+            float t = i / 100000f;
+            max = Math.max(max, Math.abs(baked.ease(t) - baked.source().ease(t)));
+        }
+        return max;
+    }
+
+    @Test
+    void staysWithinRequestedError() {
+        for (Animatable.Easing easing : SMOOTH) {
+            for (boolean cubic : new boolean[] {false, true}) {
+                BakedEasing baked = Animatable.bake(easing, 1e-4, cubic);
+                assertTrue(baked.maxError() <= 1e-4f, "reported error " + baked.maxError());
+                assertTrue(error(baked) <= 1.5e-4f, "actual error " + error(baked));
+            }
+        }
+    }
+
+    @Test
+    void cubicNeedsFewerSamples() {
+        BakedEasing linear = Animatable.bake(Animatable.SIN_IN_OUT, 1e-5, false);
+        BakedEasing cubic = Animatable.bake(Animatable.SIN_IN_OUT, 1e-5, true);
+        assertTrue(cubic.resolution() < linear.resolution());
+    }
+
+    @Test
+    void reportsErrorItCannotReach() {
+        // Circ easings have an infinite slope at one end
+        BakedEasing baked = Animatable.bake(Animatable.CIRC_OUT, 1e-6, true);
+        assertEquals(65536, baked.resolution());
+        assertTrue(baked.maxError() > 1e-6f);
+        assertTrue(error(baked) <= baked.maxError() * 1.5f);
+    }
+
+    @Test
+    void matchesSamplesExactly() {
+        BakedEasing baked = Animatable.bakeResolution(Animatable.QUAD_IN, 10, true);
+        assertEquals(10, baked.resolution());
+        for (int i = 0; i <= 10; i++)
+            assertEquals(Animatable.QUAD_IN.ease(i / 10f), baked.ease(i / 10f), 1e-6f);
+    }
+
+    @Test
+    void passesOutOfRangeInputsToSource() {
+        Animatable.Easing overshoot = t -> t * t * 3 - t * 2;
+        BakedEasing baked = Animatable.bake(overshoot);
+        assertEquals(overshoot.ease(-0.5f), baked.ease(-0.5f));
+        assertEquals(overshoot.ease(1.5f), baked.ease(1.5f));
+    }
+
+    @Test
+    void batchMatchesSingleCalls() {
+        BakedEasing baked = Animatable.bake(Animatable.SIN_IN_OUT);
+        float[] in = {-0.2f, 0, 0.1f, 0.5f, 0.77f, 1, 1.3f};
+        float[] out = new float[in.length + 2];
+        baked.ease(in, 0, out, 2, in.length);
+        for (int i = 0; i < in.length; i++)
+            assertEquals(baked.ease(in[i]), out[i + 2]);
+    }
+
+    @Test
+    void rebakingUsesOriginalSource() {
+        BakedEasing baked = Animatable.bakeResolution(Animatable.SIN_IN, 4, false);
+        assertSame(Animatable.SIN_IN, Animatable.bake(baked).source());
+    }
+
+    @Test
+    void rejectsEmptyTable() {
+        assertThrows(RuntimeException.class, () -> Animatable.bakeResolution(Animatable.LINEAR, 0, true));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisplayListTest {
+    private static RecordingContext draw(Consumer<GeometryContext> draw) {
+        HeadlessRunner runner = new HeadlessRunner(400, 400);
+        runner.run(new LambdaScene(draw), 1);
+        return runner.context();
+    }
+
+    private static RecordingContext replay(DisplayList list) {
+        return draw(ctx -> ctx.drawList(list));
+    }
+
+    private static float[] lineCoords(RecordingContext ctx) {
+        float[] out = new float[ctx.size() * 2];
+        int n = 0;
+        for (int i = 0; i < ctx.size(); i++) {
+            if (ctx.command(i) == RecordingContext.MOVE_TO || ctx.command(i) == RecordingContext.LINE_TO) {
+                out[n++] = ctx.floatArg(i, 0);
+                out[n++] = ctx.floatArg(i, 1);
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    @Test
+    void batchesOpaqueSegments() {
+        DisplayList list = new DisplayList();
+        for (int i = 0; i < 5; i++)
+            list.drawSegment(i, 0, i, 1, 0xFFFFFFFF, 2);
+
+        RecordingContext ctx = replay(list);
+        assertEquals(1, list.size());
+        assertEquals(1, ctx.count(RecordingContext.STROKE));
+        assertEquals(5, ctx.count(RecordingContext.MOVE_TO));
+    }
+
+    @Test
+    void replaysBatchesLikeSeparateDraws() {
+        DisplayList list = new DisplayList();
+        list.drawSegment(0, 0, 1, 1, 0xFFFF0000, 2);
+        list.drawSegment(1, 1, 2, 0, 0xFFFF0000, 2);
+        list.drawPointCircle(0, 0, 0xFF00FF00, 5);
+        list.drawPointCircle(2, 0, 0xFF00FF00, 5);
+        list.drawSegment(-1, 0, 3, 0, 0xFFFF0000, 2);
+
+        RecordingContext direct = draw(ctx -> {
+            ctx.drawSegment(0, 0, 1, 1, 0xFFFF0000, 2);
+            ctx.drawSegment(1, 1, 2, 0, 0xFFFF0000, 2);
+            ctx.drawPointCircle(0, 0, 0xFF00FF00, 5);
+            ctx.drawPointCircle(2, 0, 0xFF00FF00, 5);
+            ctx.drawSegment(-1, 0, 3, 0, 0xFFFF0000, 2);
+        });
+        RecordingContext replayed = replay(list);
+
+        assertArrayEquals(lineCoords(direct), lineCoords(replayed));
+        assertEquals(direct.count(RecordingContext.CIRCLE), replayed.count(RecordingContext.CIRCLE));
+        assertEquals(2, replayed.count(RecordingContext.STROKE));
+        assertEquals(1, replayed.count(RecordingContext.FILL));
+    }
+
+    @Test
+    void keepsDifferentStylesApart() {
+        DisplayList list = new DisplayList();
+        list.drawSegment(0, 0, 1, 1, 0xFFFF0000, 2);
+        list.drawSegment(0, 0, 1, 1, 0xFF00FF00, 2);
+        list.drawSegment(0, 0, 1, 1, 0xFF00FF00, 3);
+        list.drawPointCircle(0, 0, 0xFF00FF00, 5);
+        list.drawPointSquare(0, 0, 0xFF00FF00, 5);
+
+        assertEquals(5, list.size());
+        assertEquals(3, replay(list).count(RecordingContext.STROKE));
+    }
+
+    @Test
+    void neverBatchesTranslucentPrimitives() {
+        DisplayList list = new DisplayList();
+        for (int i = 0; i < 3; i++)
+            list.drawSegment(i, 0, i, 1, 0x80FFFFFF, 2);
+
+        assertEquals(3, list.size());
+        assertEquals(3, replay(list).count(RecordingContext.STROKE));
+    }
+
+    @Test
+    void reusesBatchesAfterClear() {
+        DisplayList list = new DisplayList();
+        for (int i = 0; i < 40; i++)
+            list.drawPointX(i, 0, 0xFFFFFFFF, 4, 1);
+        list.clear();
+        list.drawPointX(1, 1, 0xFFFFFFFF, 4, 1);
+        list.drawPointX(2, 2, 0xFFFFFFFF, 4, 1);
+        list.trim();
+
+        RecordingContext direct = draw(ctx -> {
+            ctx.drawPointX(1, 1, 0xFFFFFFFF, 4, 1);
+            ctx.drawPointX(2, 2, 0xFFFFFFFF, 4, 1);
+        });
+        RecordingContext replayed = replay(list);
+        assertArrayEquals(lineCoords(direct), lineCoords(replayed));
+        assertEquals(1, replayed.count(RecordingContext.STROKE));
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameStatsTest {
+    private static final double EPS = 1e-9;
+
+    private static FrameStats of(int capacity, long... millis) {
+        FrameStats stats = new FrameStats(capacity);
+        for (long ms : millis)
+            stats.record(ms * 1_000_000);
+        return stats;
+    }
+
+    @Test
+    void emptyStatsAreZero() {
+        FrameStats stats = new FrameStats(4);
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.minMillis());
+        assertEquals(0, stats.maxMillis());
+        assertEquals(0, stats.averageMillis());
+        assertEquals(0, stats.percentileMillis(50));
+        assertEquals(0, stats.fps());
+    }
+
+    @Test
+    void percentilesUseNearestRank() {
+        FrameStats stats = of(10, 7, 1, 10, 4, 2, 9, 3, 6, 8, 5);
+
+        assertEquals(1, stats.percentileMillis(0), EPS);
+        assertEquals(1, stats.percentileMillis(10), EPS);
+        assertEquals(2, stats.percentileMillis(11), EPS);
+        assertEquals(5, stats.percentileMillis(50), EPS);
+        assertEquals(10, stats.percentileMillis(95), EPS);
+        assertEquals(10, stats.percentileMillis(100), EPS);
+    }
+
+    @Test
+    void singleFrameIsEveryPercentile() {
+        FrameStats stats = of(8, 16);
+        assertEquals(16, stats.percentileMillis(0), EPS);
+        assertEquals(16, stats.percentileMillis(50), EPS);
+        assertEquals(16, stats.percentileMillis(99), EPS);
+    }
+
+    @Test
+    void oldFramesAreDropped() {
+        FrameStats stats = of(3, 100, 1, 2, 3);
+
+        assertEquals(3, stats.count());
+        assertEquals(1, stats.minMillis(), EPS);
+        assertEquals(3, stats.maxMillis(), EPS);
+        assertEquals(2, stats.averageMillis(), EPS);
+        assertEquals(3, stats.percentileMillis(100), EPS);
+    }
+
+    @Test
+    void recentCountsBackFromLatest() {
+        FrameStats stats = of(3, 1, 2, 3, 4);
+        assertEquals(4_000_000, stats.recent(0));
+        assertEquals(3_000_000, stats.recent(1));
+        assertEquals(2_000_000, stats.recent(2));
+    }
+
+    @Test
+    void recordingInvalidatesSortedTimes() {
+        FrameStats stats = of(4, 5, 6);
+        assertEquals(6, stats.maxMillis(), EPS);
+
+        stats.record(20_000_000);
+        assertEquals(20, stats.maxMillis(), EPS);
+        assertEquals(20, stats.percentileMillis(99), EPS);
+    }
+
+    @Test
+    void clearForgetsFrames() {
+        FrameStats stats = of(4, 5, 6, 7);
+        stats.clear();
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.maxMillis());
+
+        stats.record(2_000_000);
+        assertEquals(2, stats.minMillis(), EPS);
+        assertEquals(2, stats.maxMillis(), EPS);
+        assertEquals(500, stats.fps(), EPS);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessRunnerTest {
+    private static float[] run() {
+        float[] value = new float[1];
+        float[] scheduled = new float[1];
+        float[] trace = new float[20];
+
+        Animation[] anim = new Animation[1];
+
+        new HeadlessRunner(200, 200).run(new LambdaScene(ctx -> {
+            anim[0] = new Animation(t -> value[0] = t, Animatable.LINEAR, ctx.clock());
+            anim[0].start(160);
+            ctx.animations().start(scheduled, 0, 0, 1, 320, Animatable.LINEAR);
+        }, ctx -> {
+            anim[0].apply();
+            int frame = (int) (ctx.millis() / 16);
+            trace[frame * 2] = value[0];
+            trace[frame * 2 + 1] = scheduled[0];
+        }), 10);
+        return trace;
+    }
+
+    @Test
+    void animationsFollowContextTime() {
+        float[] trace = run();
+
+        assertEquals(0.5f, trace[5 * 2], 1e-6f);
+        assertEquals(0.25f, trace[5 * 2 + 1], 1e-6f);
+        assertEquals(0.9f, trace[9 * 2], 1e-6f);
+    }
+
+    @Test
+    void runsAreDeterministic() throws InterruptedException {
+        float[][] traces = new float[2][];
+        Thread other = new Thread(() -> traces[1] = run());
+        other.start();
+        traces[0] = run();
+        other.join();
+
+        assertArrayEquals(traces[0], traces[1]);
+    }
+}
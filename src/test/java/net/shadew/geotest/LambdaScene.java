@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import java.util.function.Consumer;
+
+// A scene that runs the given callbacks, for tests that only need to draw something
+final class LambdaScene implements TestScene {
+    private final Consumer<GeometryContext> init;
+    private final Consumer<GeometryContext> draw;
+
+    LambdaScene(Consumer<GeometryContext> draw) {
+        this(ctx -> {
+        }, draw);
+    }
+
+    LambdaScene(Consumer<GeometryContext> init, Consumer<GeometryContext> draw) {
+        this.init = init;
+        this.draw = draw;
+    }
+
+    @Override
+    public void init(GeometryContext ctx) {
+        init.accept(ctx);
+    }
+
+    @Override
+    public void draw(GeometryContext ctx) {
+        draw.accept(ctx);
+    }
+
+    @Override
+    public void stop(GeometryContext ctx) {
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineClipperTest {
+    private static final float EPS = 1e-5f;
+
+    private final ScreenRaycast rc = new ScreenRaycast();
+
+    @Test
+    void acceptsSegmentInsideBox() {
+        assertTrue(LineClipper.clipSegment(1, 2, 3, 4, 0, 0, 10, 10, rc));
+        assertEquals(0, rc.u1);
+        assertEquals(1, rc.u2);
+        assertEquals(1, rc.isc1.x);
+        assertEquals(4, rc.isc2.y);
+    }
+
+    @Test
+    void acceptsSegmentOnBoxBoundary() {
+        assertTrue(LineClipper.clipSegment(0, 0, 10, 0, 0, 0, 10, 10, rc));
+        assertEquals(0, rc.u1);
+        assertEquals(1, rc.u2);
+    }
+
+    @Test
+    void clipsSegmentCrossingBox() {
+        assertTrue(LineClipper.clipSegment(-10, 5, 20, 5, 0, 0, 10, 10, rc));
+        assertEquals(1 / 3f, rc.u1, EPS);
+        assertEquals(2 / 3f, rc.u2, EPS);
+        assertEquals(0, rc.isc1.x, EPS);
+        assertEquals(10, rc.isc2.x, EPS);
+    }
+
+    @Test
+    void clipsReversedSegment() {
+        assertTrue(LineClipper.clipSegment(20, 5, -10, 5, 0, 0, 10, 10, rc));
+        assertEquals(10, rc.isc1.x, EPS);
+        assertEquals(0, rc.isc2.x, EPS);
+    }
+
+    @Test
+    void rejectsSegmentOutsideBox() {
+        assertFalse(LineClipper.clipSegment(-5, -5, -1, 20, 0, 0, 10, 10, rc));
+        assertFalse(LineClipper.clipSegment(11, 5, 20, 5, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void rejectsSegmentPassingCorner() {
+        // The line through both points passes just outside the corner at (10, 10)
+        assertFalse(LineClipper.clipSegment(9, 12, 12, 9, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void rejectsSegmentEndingBeforeBox() {
+        // The line crosses the box, but the segment stops short of it
+        assertFalse(LineClipper.clipSegment(-10, 5, -1, 5, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void clipsAxisAlignedLines() {
+        assertTrue(LineClipper.clipLine(5, 0, 5, 1, 0, 0, 10, 10, rc));
+        assertEquals(0, rc.isc1.y, EPS);
+        assertEquals(10, rc.isc2.y, EPS);
+
+        assertFalse(LineClipper.clipLine(11, 0, 11, 1, 0, 0, 10, 10, rc));
+        assertFalse(LineClipper.clipLine(0, -1, 1, -1, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void clipsLineInBothDirections() {
+        assertTrue(LineClipper.clipLine(4, 4, 5, 5, 0, 0, 10, 10, rc));
+        assertEquals(-4, rc.u1, EPS);
+        assertEquals(6, rc.u2, EPS);
+        assertEquals(0, rc.isc1.x, EPS);
+        assertEquals(10, rc.isc2.y, EPS);
+    }
+
+    @Test
+    void clipsRayFromItsOrigin() {
+        assertTrue(LineClipper.clipRay(4, 4, 5, 5, 0, 0, 10, 10, rc));
+        assertEquals(0, rc.u1, EPS);
+        assertEquals(6, rc.u2, EPS);
+
+        // Pointing away from the box
+        assertFalse(LineClipper.clipRay(12, 12, 13, 13, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void rejectsZeroLengthLine() {
+        // Inside the box, but the clipped range is unbounded
+        assertFalse(LineClipper.clipLine(5, 5, 5, 5, 0, 0, 10, 10, rc));
+    }
+
+    @Test
+    void acceptsZeroLengthSegmentInsideBox() {
+        assertTrue(LineClipper.clipSegment(5, 5, 5, 5, 0, 0, 10, 10, rc));
+        assertFalse(LineClipper.clipSegment(15, 5, 15, 5, 0, 0, 10, 10, rc));
+    }
+}
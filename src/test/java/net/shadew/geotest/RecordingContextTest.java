@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingContextTest {
+    private static final float EPS = 1e-3f;
+
+    // The world origin is at the center of the screen, one unit is 50 pixels
+    private final RecordingContext ctx = new HeadlessRunner(200, 200).context();
+
+    @Test
+    void recordsPathCommands() {
+        ctx.beginFrame();
+        ctx.begin();
+        ctx.rectHud(10, 20, 30, 40);
+        ctx.fill(0xFFFF0000);
+
+        assertEquals(3, ctx.size());
+        assertEquals(RecordingContext.BEGIN, ctx.command(0));
+        assertEquals(RecordingContext.RECT, ctx.command(1));
+        assertEquals(RecordingContext.FILL, ctx.command(2));
+        assertEquals(10, ctx.floatArg(1, 0));
+        assertEquals(20, ctx.floatArg(1, 1));
+        assertEquals(30, ctx.floatArg(1, 2));
+        assertEquals(40, ctx.floatArg(1, 3));
+        assertEquals(0xFFFF0000, ctx.intArg(2, 0));
+    }
+
+    @Test
+    void recordsSegmentsInScreenSpace() {
+        ctx.beginFrame();
+        ctx.drawSegment(-1, 1, 1, -1, 0x8000FF00, 3);
+
+        assertEquals(RecordingContext.MOVE_TO, ctx.command(1));
+        assertEquals(50, ctx.floatArg(1, 0), EPS);
+        assertEquals(50, ctx.floatArg(1, 1), EPS);
+        assertEquals(RecordingContext.LINE_TO, ctx.command(2));
+        assertEquals(150, ctx.floatArg(2, 0), EPS);
+        assertEquals(150, ctx.floatArg(2, 1), EPS);
+        assertEquals(RecordingContext.STROKE, ctx.command(3));
+        assertEquals(3, ctx.floatArg(3, 0));
+        assertEquals(0x8000FF00, ctx.intArg(3, 0));
+    }
+
+    @Test
+    void clipsLinesToScreen() {
+        ctx.beginFrame();
+        ctx.drawLine(0, 0, 1, 1, 0xFF00FF00, 2);
+
+        // The screen, grown by the stroke width
+        assertEquals(1, ctx.count(RecordingContext.STROKE));
+        assertEquals(-2, ctx.floatArg(1, 0), EPS);
+        assertEquals(202, ctx.floatArg(1, 1), EPS);
+        assertEquals(202, ctx.floatArg(2, 0), EPS);
+        assertEquals(-2, ctx.floatArg(2, 1), EPS);
+    }
+
+    @Test
+    void skipsSegmentsOffScreen() {
+        ctx.beginFrame();
+        ctx.drawSegment(-20, 10, 20, 10, 0xFF00FF00, 2);
+        assertEquals(0, ctx.size());
+    }
+
+    @Test
+    void keepsAntialiasingOfMarkersAtScreenEdge() {
+        ctx.beginFrame();
+        // Centered 3.5 pixels right of the screen, so only the antialiased edge of the 6 pixel marker is visible
+        ctx.drawPointCircle(new float[] {2.07f, 0}, 1, 0xFFFFFFFF, 6);
+        ctx.drawPointCircle(new float[] {2.2f, 0}, 1, 0xFFFFFFFF, 6);
+        assertEquals(1, ctx.count(RecordingContext.CIRCLE));
+    }
+
+    @Test
+    void recordsText() {
+        ctx.beginFrame();
+        ctx.drawHudText("Hello", 10, 20, 0xFFFFFFFF, 12);
+
+        assertEquals(1, ctx.size());
+        assertEquals(RecordingContext.TEXT, ctx.command(0));
+        assertEquals("Hello", ctx.text(0));
+        assertEquals(12, ctx.floatArg(0, 2));
+        assertEquals(0xFFFFFFFF, ctx.intArg(0, 0));
+    }
+
+    @Test
+    void clearsCommandsEachFrame() {
+        ctx.beginFrame();
+        ctx.drawSegment(0, 0, 1, 1, 0xFF00FF00, 2);
+        assertNotEquals(0, ctx.size());
+
+        ctx.beginFrame();
+        assertEquals(0, ctx.size());
+    }
+
+    @Test
+    void rightModifiersSetTheirOwnMods() {
+        Input ctrlA = new Input(Input.MOD_CONTROL, Input.KEY_A, false);
+        Input superA = new Input(Input.MOD_SUPER, Input.KEY_A, false);
+        ctx.pressKey(Input.KEY_A, 0);
+
+        ctx.pressKey(Input.KEY_RIGHT_CONTROL, 0);
+        assertTrue(ctx.keyDown(ctrlA));
+        assertFalse(ctx.keyDown(superA));
+        ctx.releaseKey(Input.KEY_RIGHT_CONTROL, 0);
+
+        ctx.pressKey(Input.KEY_RIGHT_SUPER, 0);
+        assertTrue(ctx.keyDown(superA));
+        assertFalse(ctx.keyDown(ctrlA));
+    }
+
+    @Test
+    void ignoredModsMayBeHeld() {
+        Input shiftA = new Input(Input.MOD_SHIFT, Input.KEY_A, true);
+        ctx.pressKey(Input.KEY_A, 0);
+        assertFalse(ctx.keyDown(shiftA));
+
+        ctx.pressKey(Input.KEY_LEFT_SHIFT, 0);
+        ctx.pressKey(Input.KEY_LEFT_ALT, 0);
+        assertTrue(ctx.keyDown(shiftA));
+        assertFalse(ctx.keyDown(new Input(Input.MOD_SHIFT, Input.KEY_A, false)));
+    }
+
+    @Test
+    void deliversUnknownKeysWithoutTrackingThem() {
+        int[] events = new int[2];
+        ctx.onKeyDown((c, key, mods, repeat) -> events[0] = key);
+        ctx.onKeyUp((c, key, mods) -> events[1] = key);
+
+        ctx.pressKey(Input.KEY_UNKNOWN, 0);
+        assertEquals(Input.KEY_UNKNOWN, events[0]);
+        assertFalse(ctx.keyDown(Input.KEY_UNKNOWN));
+        assertFalse(ctx.keyDown(new Input(0, Input.KEY_UNKNOWN, false)));
+
+        ctx.releaseKey(Input.KEY_UNKNOWN, 0);
+        assertEquals(Input.KEY_UNKNOWN, events[1]);
+    }
+
+    @Test
+    void tracksKeysAndButtons() {
+        ctx.pressKey(Input.KEY_SPACE, 0);
+        ctx.pressMouse(Input.BTN_LEFT, 0);
+        assertTrue(ctx.keyDown(Input.KEY_SPACE));
+        assertTrue(ctx.mouseDown(Input.BTN_LEFT));
+        assertFalse(ctx.mouseDown(-1));
+        assertFalse(ctx.mouseDown(100));
+
+        ctx.releaseKey(Input.KEY_SPACE, 0);
+        ctx.releaseMouse(Input.BTN_LEFT, 0);
+        assertFalse(ctx.keyDown(Input.KEY_SPACE));
+        assertFalse(ctx.mouseDown(Input.BTN_LEFT));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Bulk transforms must match the per-point transforms exactly, whichever path (SIMD or scalar) they take
+class SpaceTest {
+    private static final int[] COUNTS = {0, 1, 3, 7, 37, 101};
+
+    private static Space space() {
+        Space space = new Space();
+        space.screenSize(317, 251);
+        space.pos(1.25f, -3.5f);
+        space.scale(1.7f);
+        space.unitLength(43);
+        return space;
+    }
+
+    private static float[] points(int count) {
+        Random rng = new Random(count);
+        float[] xy = new float[count * 2];
+        for (int i = 0; i < xy.length; i++)
+            xy[i] = rng.nextFloat() * 400 - 200;
+        return xy;
+    }
+
+    private static void assertToScreen(Space space, float[] in, float[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(space.posXToScreen(in[i * 2]), out[i * 2], "x at " + i + " of " + count);
+            assertEquals(space.posYToScreen(in[i * 2 + 1]), out[i * 2 + 1], "y at " + i + " of " + count);
+        }
+    }
+
+    private static void assertToWorld(Space space, float[] in, float[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(space.posXToWorld(in[i * 2]), out[i * 2], "x at " + i + " of " + count);
+            assertEquals(space.posYToWorld(in[i * 2 + 1]), out[i * 2 + 1], "y at " + i + " of " + count);
+        }
+    }
+
+    private static FloatBuffer direct(int floats, ByteOrder order) {
+        return ByteBuffer.allocateDirect(floats * 4).order(order).asFloatBuffer();
+    }
+
+    // Copies the points into a buffer, starting at position 1 so that offsets are tested as well
+    private static FloatBuffer fill(IntFunction<FloatBuffer> alloc, float[] xy) {
+        FloatBuffer buf = alloc.apply(xy.length + 1);
+        buf.position(1);
+        buf.put(xy);
+        buf.position(1);
+        return buf;
+    }
+
+    private static float[] read(FloatBuffer buf, int floats) {
+        float[] xy = new float[floats];
+        buf.get(buf.position(), xy);
+        return xy;
+    }
+
+    private static void testBuffers(IntFunction<FloatBuffer> inAlloc, IntFunction<FloatBuffer> outAlloc) {
+        Space space = space();
+        for (int count : COUNTS) {
+            float[] xy = points(count);
+
+            FloatBuffer in = fill(inAlloc, xy);
+            FloatBuffer out = fill(outAlloc, new float[count * 2]);
+            space.posToScreen(in, out, count);
+            assertToScreen(space, xy, read(out, count * 2), count);
+
+            space.posToWorld(in, out, count);
+            assertToWorld(space, xy, read(out, count * 2), count);
+        }
+    }
+
+    @Test
+    void arraysMatchPointTransforms() {
+        Space space = space();
+        for (int count : COUNTS) {
+            float[] xy = points(count);
+            float[] in = new float[count * 2 + 3];
+            System.arraycopy(xy, 0, in, 3, count * 2);
+            float[] out = new float[count * 2 + 1];
+
+            space.posToScreen(in, 3, out, 1, count);
+            assertToScreen(space, xy, Arrays.copyOfRange(out, 1, out.length), count);
+
+            space.posToWorld(in, 3, out, 1, count);
+            assertToWorld(space, xy, Arrays.copyOfRange(out, 1, out.length), count);
+        }
+    }
+
+    @Test
+    void heapBuffersMatchPointTransforms() {
+        testBuffers(FloatBuffer::allocate, FloatBuffer::allocate);
+    }
+
+    @Test
+    void nativeOrderBuffersMatchPointTransforms() {
+        testBuffers(n -> direct(n, ByteOrder.nativeOrder()), n -> direct(n, ByteOrder.nativeOrder()));
+    }
+
+    @Test
+    void bigEndianBuffersMatchPointTransforms() {
+        testBuffers(n -> direct(n, ByteOrder.BIG_ENDIAN), n -> direct(n, ByteOrder.BIG_ENDIAN));
+    }
+
+    @Test
+    void mixedOrderBuffersMatchPointTransforms() {
+        testBuffers(n -> direct(n, ByteOrder.BIG_ENDIAN), n -> direct(n, ByteOrder.LITTLE_ENDIAN));
+        testBuffers(n -> direct(n, ByteOrder.LITTLE_ENDIAN), FloatBuffer::allocate);
+    }
+}
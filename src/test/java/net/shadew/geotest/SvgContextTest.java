@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SvgContextTest {
+    private static String export(Consumer<GeometryContext> draw) {
+        Space space = new Space();
+        space.screenSize(200, 200);
+
+        StringWriter out = new StringWriter();
+        SvgContext.export(new LambdaScene(draw), space, new FrameStats(16), 0, out);
+        return out.toString();
+    }
+
+    private static int elements(String svg) {
+        return svg.split("<path ", -1).length - 1;
+    }
+
+    private static void rectHud(GeometryContext ctx, float x, float y, float w, float h) {
+        ctx.begin();
+        ctx.rectHud(x, y, w, h);
+        ctx.fill(0xFFFF0000);
+    }
+
+    @Test
+    void mergesSeparateFills() {
+        String svg = export(ctx -> {
+            rectHud(ctx, 10, 10, 20, 20);
+            rectHud(ctx, 50, 10, 20, 20);
+            // Only touches the first
+            rectHud(ctx, 30, 10, 20, 20);
+        });
+        assertEquals(1, elements(svg));
+    }
+
+    @Test
+    void keepsOverlappingFillsApart() {
+        // Opposite winding, merged into one path they would cancel out where they overlap
+        String svg = export(ctx -> {
+            rectHud(ctx, 10, 10, 40, 40);
+            rectHud(ctx, 70, 30, -40, 40);
+        });
+        assertEquals(2, elements(svg));
+    }
+
+    @Test
+    void keepsOverlappingEllipsesApart() {
+        String svg = export(ctx -> {
+            ctx.begin();
+            ctx.ellipseHud(50, 50, 10, 30);
+            ctx.fill(0xFFFF0000);
+            ctx.begin();
+            ctx.rectHud(45, 75, 10, 10);
+            ctx.fill(0xFFFF0000);
+        });
+        assertEquals(2, elements(svg));
+    }
+
+    @Test
+    void neverMergesTranslucentFills() {
+        String svg = export(ctx -> {
+            ctx.begin();
+            ctx.rectHud(10, 10, 20, 20);
+            ctx.fill(0x80FF0000);
+            ctx.begin();
+            ctx.rectHud(50, 10, 20, 20);
+            ctx.fill(0x80FF0000);
+        });
+        assertEquals(2, elements(svg));
+    }
+}
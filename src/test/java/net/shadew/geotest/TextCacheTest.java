@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Only looks entries up, measuring needs a NanoVG context
+class TextCacheTest {
+    private final TextCache cache = new TextCache(0, 3, new RenderStats());
+
+    @AfterEach
+    void dispose() {
+        cache.dispose();
+    }
+
+    @Test
+    void sameKeyHits() {
+        TextCache.Entry e = cache.entry("Hello", 1, 16, Float.NaN, 0);
+        assertSame(e, cache.entry(new String("Hello"), 1, 16, Float.NaN, 0));
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void everyKeyPartCounts() {
+        TextCache.Entry e = cache.entry("Hello", 1, 16, 100, 0);
+        assertNotSame(e, cache.entry("Hallo", 1, 16, 100, 0));
+        assertNotSame(e, cache.entry("Hello", 2, 16, 100, 0));
+        assertNotSame(e, cache.entry("Hello", 1, 17, 100, 0));
+        cache.clear();
+
+        e = cache.entry("Hello", 1, 16, 100, 0);
+        assertNotSame(e, cache.entry("Hello", 1, 16, 101, 0));
+        assertNotSame(e, cache.entry("Hello", 1, 16, 100, 1));
+        assertEquals(7, cache.misses());
+        assertEquals(0, cache.hits());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        TextCache.Entry a = cache.entry("a", 0, 16, Float.NaN, 0);
+        TextCache.Entry b = cache.entry("b", 0, 16, Float.NaN, 0);
+        cache.entry("c", 0, 16, Float.NaN, 0);
+
+        // Touching 'a' makes 'b' the eldest
+        assertSame(a, cache.entry("a", 0, 16, Float.NaN, 0));
+        cache.entry("d", 0, 16, Float.NaN, 0);
+
+        assertSame(a, cache.entry("a", 0, 16, Float.NaN, 0));
+        assertNotSame(b, cache.entry("b", 0, 16, Float.NaN, 0));
+        assertEquals(5, cache.misses());
+    }
+
+    @Test
+    void encodesTextWithoutTerminator() {
+        TextCache.Entry e = cache.entry("h\u00e9", 0, 16, Float.NaN, 0);
+        assertEquals(3, e.end - e.start);
+        assertFalse(e.measured);
+
+        TextCache.Entry empty = cache.entry("", 0, 16, Float.NaN, 0);
+        assertEquals(empty.start, empty.end);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package net.shadew.geotest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileRasterizerTest {
+    private static final int BG = 0xFF000000;
+    private static final int FG = 0xFFFFFFFF;
+
+    private static IntBuffer render(float... points) {
+        TileRasterizer raster = new TileRasterizer(ForkJoinPool.commonPool());
+        for (int i = 0; i < points.length; i += 2) {
+            int j = (i + 2) % points.length;
+            raster.edge(points[i], points[i + 1], points[j], points[j + 1]);
+        }
+        raster.fill(FG);
+
+        IntBuffer out = IntBuffer.allocate(256 * 256);
+        raster.render(BG, 256, 256, out);
+        return out;
+    }
+
+    private static int pixel(IntBuffer out, int x, int y) {
+        return out.get(y * 256 + x);
+    }
+
+    @Test
+    void fillsTileInsideLongSlantedEdge() {
+        // The edge from (0, 200) to (100, -200) passes left of tile (1, 1) without either end lying left of it
+        IntBuffer out = render(0, 200, 100, -200, 400, 300);
+
+        assertEquals(FG, pixel(out, 70, 70));
+        assertEquals(FG, pixel(out, 96, 96));
+        assertEquals(FG, pixel(out, 120, 120));
+        assertEquals(BG, pixel(out, 10, 10));
+    }
+
+    @Test
+    void fillsTileInsideReversedShape() {
+        IntBuffer out = render(400, 300, 100, -200, 0, 200);
+
+        assertEquals(FG, pixel(out, 96, 96));
+        assertEquals(BG, pixel(out, 10, 10));
+    }
+
+    @Test
+    void leavesTileOutsideShapeEmpty() {
+        // Tile (0, 0) lies fully left of the triangle, with edges crossing its rows further right
+        IntBuffer out = render(150, 0, 250, 30, 150, 60);
+
+        assertEquals(BG, pixel(out, 32, 32));
+        assertEquals(FG, pixel(out, 170, 30));
+    }
+
+    @Test
+    void coversPartialPixels() {
+        IntBuffer out = render(10, 10, 20.5f, 10, 20.5f, 20, 10, 20);
+
+        assertEquals(FG, pixel(out, 15, 15));
+        assertEquals(BG, pixel(out, 21, 15));
+        assertNotEquals(BG, pixel(out, 20, 15));
+        assertNotEquals(FG, pixel(out, 20, 15));
+    }
+}
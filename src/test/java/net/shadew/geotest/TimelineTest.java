@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2023 Samū
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.shadew.geotest;
+
+import org.joml.Vector2f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineTest {
+    // Keys at 100 and 300 appear twice, so the value jumps there
+    private static Timeline.FloatTrack track() {
+        return new Timeline().track(new float[1], 0)
+                             .key(0, 0)
+                             .key(100, 10, Animatable.SIN_IN_OUT)
+                             .key(100, 50)
+                             .key(250, 20, Animatable.QUAD_IN)
+                             .key(300, 30)
+                             .key(300, 60)
+                             .key(300, 70)
+                             .key(400, 90, Animatable.CUBIC_OUT);
+    }
+
+    // A new track has no cursor yet, so it always takes the binary search
+    private static float searched(int time) {
+        return track().sample(time);
+    }
+
+    @Test
+    void samplesKeysExactly() {
+        Timeline.FloatTrack track = track();
+        assertEquals(0, track.sample(0));
+        assertEquals(20, track.sample(250));
+        assertEquals(90, track.sample(400));
+        assertEquals(0, track.sample(-10));
+        assertEquals(90, track.sample(1000));
+    }
+
+    @Test
+    void duplicateTimesJumpToLastKey() {
+        Timeline.FloatTrack track = track();
+        assertEquals(10, track.sample(99), 0.01f);
+        assertEquals(50, track.sample(100));
+        assertEquals(70, track.sample(300));
+        assertEquals(50, searched(100));
+        assertEquals(70, searched(300));
+    }
+
+    @Test
+    void cursorAgreesWithSearchMovingForward() {
+        Timeline.FloatTrack track = track();
+        for (int time = -5; time <= 405; time++)
+            assertEquals(searched(time), track.sample(time), "at " + time);
+    }
+
+    @Test
+    void cursorAgreesWithSearchMovingBackward() {
+        Timeline.FloatTrack track = track();
+        for (int time = 405; time >= -5; time--)
+            assertEquals(searched(time), track.sample(time), "at " + time);
+    }
+
+    @Test
+    void cursorAgreesWithSearchWhenJumping() {
+        Timeline.FloatTrack track = track();
+        Random rng = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int time = rng.nextInt(420) - 10;
+            assertEquals(searched(time), track.sample(time), "at " + time);
+        }
+    }
+
+    @Test
+    void trackWithOneKeyIsConstant() {
+        Timeline.FloatTrack track = new Timeline().track(new float[1], 0).key(50, 3);
+        assertEquals(3, track.sample(0));
+        assertEquals(3, track.sample(50));
+        assertEquals(3, track.sample(100));
+    }
+
+    @Test
+    void rejectsKeysOutOfOrder() {
+        Timeline.FloatTrack track = new Timeline().track(new float[1], 0).key(100, 0);
+        assertThrows(RuntimeException.class, () -> track.key(50, 1));
+        assertThrows(RuntimeException.class, () -> track.key(-1, 1));
+    }
+
+    @Test
+    void seekWritesAllTracks() {
+        Timeline timeline = new Timeline();
+        float[] floats = new float[2];
+        Vector2f vec = new Vector2f();
+        int[] colors = new int[1];
+        timeline.track(floats, 1).key(0, 0).key(100, 10);
+        timeline.track(vec).key(0, 0, 0).key(200, 20, 40);
+        timeline.colorTrack(colors, 0).key(0, 0xFF000000).key(100, 0xFF0000FF);
+
+        assertEquals(200, timeline.duration());
+
+        timeline.seek(50);
+        assertEquals(5, floats[1], 1e-5f);
+        assertEquals(5, vec.x, 1e-5f);
+        assertEquals(10, vec.y, 1e-5f);
+        assertEquals(0xFF000080, colors[0]);
+    }
+}